@@ -3,6 +3,8 @@ package com.ecommerce.ecommerce_backend.config;
 import com.ecommerce.ecommerce_backend.entity.Role;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class AdminDataLoader implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminDataLoader.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -48,7 +52,7 @@ public class AdminDataLoader implements CommandLineRunner {
             .anyMatch(user -> user.getRole() == Role.ADMIN);
             
         if (adminExists) {
-            System.out.println("ℹ️  Admin user already exists, skipping creation");
+            logger.info("ℹ️ Admin user already exists, skipping creation");
             return;
         }
 
@@ -56,23 +60,20 @@ public class AdminDataLoader implements CommandLineRunner {
             adminPassword == null || adminPassword.trim().isEmpty() ||
             adminEmail == null || adminEmail.trim().isEmpty()) {
             
-            System.out.println("⚠️  No admin credentials provided. To create an admin user, set:");
-            System.out.println("   APP_ADMIN_USERNAME=your_admin_username");
-            System.out.println("   APP_ADMIN_PASSWORD=your_admin_password");
-            System.out.println("   APP_ADMIN_EMAIL=your_admin_email");
-            System.out.println("   (or use application.properties)");
+            logger.warn("⚠️ No admin credentials provided. To create an admin user, set APP_ADMIN_USERNAME, "
+                    + "APP_ADMIN_PASSWORD and APP_ADMIN_EMAIL (or use application.properties)");
             return;
         }
 
         try {
             // Check if username or email already exists (as regular user)
             if (userRepository.existsByUsername(adminUsername)) {
-                System.out.println("❌ Cannot create admin: Username '" + adminUsername + "' already exists");
+                logger.error("❌ Cannot create admin: username '{}' already exists", adminUsername);
                 return;
             }
 
             if (userRepository.existsByEmail(adminEmail)) {
-                System.out.println("❌ Cannot create admin: Email '" + adminEmail + "' already exists");
+                logger.error("❌ Cannot create admin: email '{}' already exists", adminEmail);
                 return;
             }
 
@@ -88,13 +89,11 @@ public class AdminDataLoader implements CommandLineRunner {
 
             userRepository.save(admin);
             
-            System.out.println("✅ Default admin user created successfully!");
-            System.out.println("   Username: " + adminUsername);
-            System.out.println("   Email: " + adminEmail);
-            System.out.println("   🚨 IMPORTANT: Change the default password immediately!");
+            logger.info("✅ Default admin user {} <{}> created. 🚨 Change the default password immediately!",
+                    adminUsername, adminEmail);
             
         } catch (Exception e) {
-            System.out.println("❌ Failed to create admin user: " + e.getMessage());
+            logger.error("❌ Failed to create admin user: {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.ecommerce.ecommerce_backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders, order items and cart items used to get AUTO_INCREMENT ids. Now that
+ * they take ids from the id_generators table, move each generator past the
+ * highest id already in its table before the first insert can run.
+ *
+ * Runs while the context starts (after Hibernate has updated the schema,
+ * before the web server accepts requests) and only ever moves values forward,
+ * so it is safe on every node and every restart.
+ */
+@Component
+public class IdGeneratorInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    // Must match allocationSize on the @TableGenerator mappings
+    private static final long ALLOCATION_SIZE = 50;
+
+    // generator row (pkColumnValue) -> table whose ids it hands out
+    private static final Map<String, String> GENERATORS = Map.of(
+            "orders", "orders",
+            "order_items", "order_items",
+            "cart_items", "cart_items");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Only here so the schema exists before this bean initializes
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void alignGenerators() {
+        GENERATORS.forEach(this::alignGenerator);
+    }
+
+    private void alignGenerator(String generator, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        // One full block of headroom, whatever the optimizer does with the stored value
+        long floor = (maxId != null ? maxId : 0) + ALLOCATION_SIZE + 1;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_val FROM id_generators WHERE sequence_name = ?", Long.class, generator);
+
+        if (current.isEmpty()) {
+            if (floor == ALLOCATION_SIZE + 1) {
+                // Empty table and no row yet: let Hibernate start from its initial value
+                return;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", generator, floor);
+                logger.info("🔢 Id generator {} initialized at {}", generator, floor);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Another node created the row first; fall through and move it forward if needed
+            }
+        }
+
+        int moved = jdbcTemplate.update(
+                "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                floor, generator, floor);
+        if (moved > 0) {
+            logger.info("🔢 Id generator {} moved past existing ids to {}", generator, floor);
+        }
+    }
+}
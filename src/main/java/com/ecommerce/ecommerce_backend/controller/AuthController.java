@@ -4,24 +4,35 @@ import com.ecommerce.ecommerce_backend.dto.*;
 import com.ecommerce.ecommerce_backend.entity.Role;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.security.JwtUtil;
+import com.ecommerce.ecommerce_backend.security.ParsedToken;
+import com.ecommerce.ecommerce_backend.security.TokenRevocationService;
+import com.ecommerce.ecommerce_backend.service.LoginBusyException;
+import com.ecommerce.ecommerce_backend.service.LoginService;
 import com.ecommerce.ecommerce_backend.service.UserService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private LoginService loginService;
 
     @Autowired
     private UserService userService;
@@ -29,6 +40,9 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest) {
         try {
@@ -73,62 +87,36 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
-    System.out.println("🚀 LOGIN ATTEMPT 🚀");
-    System.out.println("Username: " + loginRequest.getUsername());
-    System.out.println("Password: '" + loginRequest.getPassword() + "'");
-    
-    try {
-        // Test password matching before authentication
-        boolean passwordMatches = userService.testPasswordMatch(loginRequest.getUsername(), loginRequest.getPassword());
-        System.out.println("🔐 Manual password test result: " + passwordMatches);
-        
-        // Authenticate user
-        System.out.println("🔄 Attempting Spring Security authentication...");
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.getUsername(),
-                loginRequest.getPassword()
-            )
-        );
-        System.out.println("✅ Spring Security authentication successful!");
-
-        // Load user details
-        System.out.println("🔍 Loading user details...");
-        UserDetails userDetails = userService.loadUserByUsername(loginRequest.getUsername());
-        System.out.println("✅ UserDetails loaded: " + userDetails.getUsername());
-        
-        System.out.println("🔍 Getting user entity...");
-        User user = userService.getUserByUsername(loginRequest.getUsername()).get();
-        System.out.println("✅ User entity loaded: " + user.getUsername());
-
-        // Generate JWT token
-        System.out.println("🔑 Generating JWT token...");
-        String jwt = jwtUtil.generateToken(userDetails);
-        System.out.println("✅ JWT token generated: " + jwt.substring(0, 20) + "...");
-
-        // Return success response with token
-        System.out.println("📦 Creating response DTO...");
-        UserResponseDTO userResponseDTO = DTOMapper.toUserResponseDTO(user);
-        System.out.println("✅ UserResponseDTO created");
-        
-        AuthResponseDTO authResponse = new AuthResponseDTO(jwt, userResponseDTO);
-        System.out.println("✅ AuthResponseDTO created");
-        
-        System.out.println("🎉 Login successful! Returning response...");
-        return ResponseEntity.ok(authResponse);
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
+        logger.debug("🚀 Login attempt for {}", loginRequest.getUsername());
+
+        // Completes on the password hashing pool; the request thread is released meanwhile
+        return loginService.login(loginRequest.getUsername(), loginRequest.getPassword())
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> loginFailed(loginRequest.getUsername(),
+                        e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    }
 
-    } catch (BadCredentialsException e) {
-        System.out.println("❌ BadCredentialsException: " + e.getMessage());
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-            .body(new MessageResponseDTO("Error: Invalid username or password!"));
-    } catch (Exception e) {
-        System.out.println("❌ Authentication Exception: " + e.getMessage());
-        e.printStackTrace();
+    private ResponseEntity<?> loginFailed(String username, Throwable e) {
+        if (e instanceof BadCredentialsException) {
+            logger.info("❌ Invalid credentials for {}", username);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new MessageResponseDTO("Error: Invalid username or password!"));
+        }
+        if (e instanceof DisabledException) {
+            logger.info("❌ Login refused for disabled user {}", username);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new MessageResponseDTO("Error: Account is disabled!"));
+        }
+        if (e instanceof LoginBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponseDTO(e.getMessage()));
+        }
+        logger.error("❌ Authentication failed for {}", username, e);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
             .body(new MessageResponseDTO("Error: Authentication failed. " + e.getMessage()));
     }
-}
 
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestHeader("Authorization") String authHeader) {
@@ -138,10 +126,16 @@ public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO lo
                     .body(new MessageResponseDTO("Error: Invalid token format!"));
             }
 
-            String token = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
+            // Throws (handled below as 401) if the signature is bad or the token expired
+            ParsedToken token = jwtUtil.parse(authHeader.substring(7));
+            String username = token.getSubject();
 
-            if (username != null && jwtUtil.validateToken(token)) {
+            // A logged-out or revoked token must not be traded for a fresh one
+            boolean revoked = token.getUserId() != null
+                    ? !tokenRevocationService.isHonored(token)
+                    : tokenRevocationService.isDenied(token);
+
+            if (username != null && !revoked) {
                 UserDetails userDetails = userService.loadUserByUsername(username);
                 String newToken = jwtUtil.generateToken(userDetails);
                 
@@ -162,9 +156,15 @@ public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO lo
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser() {
-        // Since we're using stateless JWT, logout is handled on the client side
-        // by simply removing the token from storage
+    public ResponseEntity<?> logoutUser(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        // The client drops the token; we also deny it until it expires so a copy can't be reused
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                userService.logout(jwtUtil.parse(authHeader.substring(7)));
+            } catch (Exception e) {
+                // Invalid or expired tokens are already unusable
+            }
+        }
         return ResponseEntity.ok(new MessageResponseDTO("User logged out successfully!"));
     }
 
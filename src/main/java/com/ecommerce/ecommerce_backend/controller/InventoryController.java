@@ -0,0 +1,55 @@
+package com.ecommerce.ecommerce_backend.controller;
+
+import com.ecommerce.ecommerce_backend.dto.MessageResponseDTO;
+import com.ecommerce.ecommerce_backend.dto.StockLevelDTO;
+import com.ecommerce.ecommerce_backend.repository.ProductStockView;
+import com.ecommerce.ecommerce_backend.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/inventory")
+@CrossOrigin(origins = "*")
+public class InventoryController {
+
+    // Upper bound on ids per call so one request cannot turn into a table scan
+    private static final int MAX_IDS_PER_REQUEST = 500;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    // PUBLIC - Stock badges for a whole product grid in one call: /api/inventory/stock?ids=1,2,3
+    @GetMapping("/stock")
+    public ResponseEntity<?> getStockLevels(@RequestParam List<Long> ids) {
+        try {
+            Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+            if (uniqueIds.size() > MAX_IDS_PER_REQUEST) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponseDTO("At most " + MAX_IDS_PER_REQUEST + " product ids per request"));
+            }
+
+            Map<Long, ProductStockView> stock = inventoryService.loadStock(uniqueIds);
+            List<StockLevelDTO> stockLevels = new ArrayList<>();
+            for (Long productId : uniqueIds) {
+                ProductStockView product = stock.get(productId);
+                if (product == null) {
+                    stockLevels.add(new StockLevelDTO(productId, 0, false));
+                } else {
+                    boolean inStock = product.getActive() && product.getStockQuantity() > 0;
+                    stockLevels.add(new StockLevelDTO(productId, product.getStockQuantity(), inStock));
+                }
+            }
+            return ResponseEntity.ok(stockLevels);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -3,24 +3,38 @@ package com.ecommerce.ecommerce_backend.controller;
 import com.ecommerce.ecommerce_backend.dto.*;
 import com.ecommerce.ecommerce_backend.entity.Order;
 import com.ecommerce.ecommerce_backend.entity.User;
+import com.ecommerce.ecommerce_backend.service.AsyncCheckoutService;
+import com.ecommerce.ecommerce_backend.service.CheckoutBusyException;
+import com.ecommerce.ecommerce_backend.service.IdempotencyException;
+import com.ecommerce.ecommerce_backend.service.IdempotencyService;
+import com.ecommerce.ecommerce_backend.service.OrderExportService;
 import com.ecommerce.ecommerce_backend.service.OrderService;
 import com.ecommerce.ecommerce_backend.service.ShoppingCartService;
 import com.ecommerce.ecommerce_backend.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/orders")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {"X-Next-Cursor", "Location", "Retry-After", "X-Correlation-Id"})
 public class OrderController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderService orderService;
     
@@ -30,52 +44,111 @@ public class OrderController {
     @Autowired
     private ShoppingCartService shoppingCartService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
     // USER - Create order from cart (with Stripe payment processing)
+    // A retry carrying the same Idempotency-Key gets the original order back instead of a second charge.
+    // With "Prefer: respond-async" the order is accepted as PENDING (202) and paid in the background;
+    // follow it on /api/orders/me/{orderId} or /api/orders/me/{orderId}/events.
     @PostMapping
     @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
     public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequestDTO request,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                       @RequestHeader(value = "Prefer", required = false) String prefer,
                                        Authentication authentication) {
         try {
             String username = authentication.getName();
-            User user = userService.getUserByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            boolean async = asyncCheckoutService.isEnabled() && prefer != null && prefer.contains("respond-async");
 
-            // Get cart to check if it's empty
-            ShoppingCartDTO cart = shoppingCartService.getCartByUserId(user.getId());
-            
-            if (cart.getCartItems().isEmpty()) {
+            OrderDTO order;
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                order = placeOrder(username, request, async);
+            } else if (idempotencyKey.length() > 128) {
                 return ResponseEntity.badRequest()
-                        .body(new MessageResponseDTO("Cart is empty"));
+                        .body(new MessageResponseDTO("Idempotency-Key must be at most 128 characters"));
+            } else {
+                AtomicBoolean placed = new AtomicBoolean();
+                order = idempotencyService.execute(username, idempotencyKey, request, () -> {
+                    placed.set(true);
+                    return placeOrder(username, request, async);
+                });
+                // A replayed async checkout stored its initial PENDING result; report where it is now
+                if (!placed.get() && order.getOrderStatus() == Order.OrderStatus.PENDING && order.getId() != null) {
+                    order = orderService.getOrderById(order.getId()).orElse(order);
+                }
             }
 
-            // Validate payment information is provided
-            if (request.getCardToken() == null && request.getPaymentIntentId() == null) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponseDTO("Payment information is required"));
+            if (order.getOrderStatus() == Order.OrderStatus.PENDING) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.LOCATION, "/api/orders/me/" + order.getId())
+                        .body(order);
             }
-
-            // Create order with Stripe payment processing (all handled in OrderService now)
-            OrderDTO order = orderService.createOrderFromCart(username, request);
-
            return ResponseEntity.status(HttpStatus.CREATED).body(order);
-            
+
+        } catch (CheckoutBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(new MessageResponseDTO(e.getMessage()));
+        } catch (IdempotencyException e) {
+            HttpStatus status = e.getReason() == IdempotencyException.Reason.IN_PROGRESS
+                    ? HttpStatus.CONFLICT
+                    : HttpStatus.UNPROCESSABLE_ENTITY;
+            return ResponseEntity.status(status).body(new MessageResponseDTO(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponseDTO("Error creating order: " + e.getMessage()));
         }
     }
 
-    // USER - Get own orders
+    private OrderDTO placeOrder(String username, CreateOrderRequestDTO request, boolean async) {
+        User user = userService.getUserByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Get cart to check if it's empty
+        ShoppingCartDTO cart = shoppingCartService.getCartByUserId(user.getId());
+
+        if (cart.getCartItems().isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+
+        // Validate payment information is provided
+        if (request.getCardToken() == null && request.getPaymentIntentId() == null) {
+            throw new IllegalArgumentException("Payment information is required");
+        }
+
+        if (async) {
+            return asyncCheckoutService.submit(username, request);
+        }
+
+        // Create order with Stripe payment processing (all handled in OrderService now)
+        return orderService.createOrderFromCart(username, request);
+    }
+
+    // USER - Get own orders, newest first, one page at a time (next page cursor in X-Next-Cursor)
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
-    public ResponseEntity<List<OrderDTO>> getCurrentUserOrders(Authentication authentication) {
+    public ResponseEntity<List<OrderDTO>> getCurrentUserOrders(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "20") int size,
+                                                               Authentication authentication) {
         try {
             String username = authentication.getName();
             User user = userService.getUserByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<OrderDTO> orders = orderService.getUserOrders(user.getId());
-            return ResponseEntity.ok(orders);
+            OrderPageDTO page = orderService.getUserOrders(user.getId(), cursor, clampPageSize(size));
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -108,18 +181,73 @@ public class OrderController {
         }
     }
 
-    // ADMIN - Get all orders
+    // USER - Server-sent events: one "order" event with the final state once checkout finishes
+    @GetMapping(value = "/me/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    public ResponseEntity<?> streamOrderStatus(@PathVariable Long orderId, Authentication authentication) {
+        try {
+            User user = userService.getUserByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            OrderDTO order = orderService.getOrderById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (!order.getUserId().equals(user.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            return ResponseEntity.ok(asyncCheckoutService.subscribe(orderId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // ADMIN - Get all orders, newest first, one page at a time (next page cursor in X-Next-Cursor)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
+    public ResponseEntity<List<OrderDTO>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int size) {
         try {
-            List<OrderDTO> orders = orderService.getAllOrders();
-            return ResponseEntity.ok(orders);
+            OrderPageDTO page = orderService.getAllOrders(cursor, clampPageSize(size));
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // ADMIN - Export orders created in [from, to) as NDJSON or CSV, streamed row by row
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO("Invalid export format: " + format));
+        }
+
+        LocalDateTime rangeFrom = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now().plusDays(1);
+        if (!rangeFrom.isBefore(rangeTo)) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO("'from' must be before 'to'"));
+        }
+
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        StreamingResponseBody body = out -> orderExportService.exportOrders(rangeFrom, rangeTo, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
     // ADMIN - Get specific order by ID
     @GetMapping("/{orderId}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -150,4 +278,16 @@ public class OrderController {
                     .body(new MessageResponseDTO("Error updating order status: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private ResponseEntity<List<OrderDTO>> pageResponse(OrderPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
+    }
+}
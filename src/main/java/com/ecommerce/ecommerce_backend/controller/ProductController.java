@@ -2,35 +2,96 @@ package com.ecommerce.ecommerce_backend.controller;
 
 import com.ecommerce.ecommerce_backend.dto.DTOMapper;
 import com.ecommerce.ecommerce_backend.dto.ProductDTO;
+import com.ecommerce.ecommerce_backend.dto.ProductPageDTO;
 import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductFilter;
+import com.ecommerce.ecommerce_backend.service.CatalogSnapshot;
 import com.ecommerce.ecommerce_backend.service.ProductService;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {"X-Next-Cursor"})
 public class ProductController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductService productService;
 
-    // Get all products
+    // Browsers keep the catalog briefly; shared caches (CDN) may keep it longer and revalidate in the background
+    @Value("${products.http.max-age:PT30S}")
+    private Duration maxAge;
+
+    @Value("${products.http.shared-max-age:PT5M}")
+    private Duration sharedMaxAge;
+
+    @Value("${products.http.stale-while-revalidate:PT1M}")
+    private Duration staleWhileRevalidate;
+
+    private CacheControl catalogCacheControl;
+
+    @PostConstruct
+    void buildCacheControl() {
+        catalogCacheControl = CacheControl.maxAge(maxAge)
+                .sMaxAge(sharedMaxAge)
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .cachePublic();
+    }
+
+    // Get all products. With any paging, sort or filter parameter, returns one page instead
+    // (sort=price|createdAt|name[,asc|desc], next page cursor in X-Next-Cursor)
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            if (cursor == null && size == null && sort == null && active == null
+                    && minPrice == null && maxPrice == null && inStock == null) {
+                return jsonBody(productService.getCatalogBody(), acceptEncoding);
+            }
+
+            ProductFilter filter = new ProductFilter(active, minPrice, maxPrice, Boolean.TRUE.equals(inStock));
+            ProductPageDTO page = productService.getProductPage(filter, sort, cursor,
+                    clampPageSize(size != null ? size : 20));
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Ranked full-text search over active products (name, short description, description)
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam("q") String query,
+                                                           @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Product> products = productService.getAllProducts();
-            List<ProductDTO> productDTOs = products.stream()
-                    .map(DTOMapper::toProductDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(productDTOs);
+            if (query.isBlank()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(productService.searchProducts(query, clampPageSize(limit)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -38,15 +99,12 @@ public class ProductController {
 
     // Get product by ID
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Optional<Product> productOptional = productService.getProductById(id);
-            if (productOptional.isPresent()) {
-                ProductDTO productDTO = DTOMapper.toProductDTO(productOptional.get());
-                return ResponseEntity.ok(productDTO);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            return productService.getCatalogProductBody(id)
+                    .map(body -> jsonBody(body, acceptEncoding))
+                    .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -117,15 +175,81 @@ public class ProductController {
 
     // Get active products only
     @GetMapping("/active")
-    public ResponseEntity<List<ProductDTO>> getActiveProducts() {
+    public ResponseEntity<byte[]> getActiveProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Product> products = productService.getActiveProducts();
-            List<ProductDTO> productDTOs = products.stream()
-                    .map(DTOMapper::toProductDTO)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(productDTOs);
+            return jsonBody(productService.getActiveCatalogBody(), acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private ResponseEntity<List<ProductDTO>> pageResponse(ProductPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(catalogCacheControl);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getProducts());
+    }
+
+    // Writes the shared pre-serialized bytes as they are, gzipped when the client accepts it.
+    // ETag and Last-Modified let Spring answer a matching conditional GET with 304 and no body.
+    private ResponseEntity<byte[]> jsonBody(CatalogSnapshot.Body body, String acceptEncoding) {
+        boolean gzip = body.getGzipped() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(catalogCacheControl)
+                .eTag(gzip ? body.getGzipEtag() : body.getEtag())
+                .lastModified(body.getLastModified());
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzipped());
+        }
+        return response.body(body.getJson());
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip (RFC 9110 12.5.3): an explicit gzip entry decides
+     * by its q-value, otherwise "*" does; q=0 means "not acceptable".
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double wildcardQ = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = qValue(parts);
+            } else if (coding.equals("*")) {
+                wildcardQ = qValue(parts);
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return wildcardQ != null && wildcardQ > 0;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // A malformed weight is treated as a refusal rather than guessed at
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
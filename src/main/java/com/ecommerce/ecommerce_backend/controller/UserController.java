@@ -4,6 +4,7 @@ import com.ecommerce.ecommerce_backend.dto.DTOMapper;
 import com.ecommerce.ecommerce_backend.dto.MessageResponseDTO;
 import com.ecommerce.ecommerce_backend.dto.UserRequestDTO;
 import com.ecommerce.ecommerce_backend.dto.UserResponseDTO;
+import com.ecommerce.ecommerce_backend.entity.Role;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.service.UserService;
 import jakarta.validation.Valid;
@@ -114,6 +115,30 @@ public class UserController {
         }
     }
 
+    // ADMIN ONLY - Change role (existing tokens of the user stop working)
+    @PutMapping("/{id}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> changeRole(@PathVariable Long id, @RequestParam Role role) {
+        try {
+            return ResponseEntity.ok(DTOMapper.toUserResponseDTO(userService.changeRole(id, role)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO("Error changing role: " + e.getMessage()));
+        }
+    }
+
+    // ADMIN ONLY - Activate or deactivate a user
+    @PutMapping("/{id}/active")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setActive(@PathVariable Long id, @RequestParam boolean active) {
+        try {
+            return ResponseEntity.ok(DTOMapper.toUserResponseDTO(userService.setActive(id, active)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO("Error updating user: " + e.getMessage()));
+        }
+    }
+
     // ADMIN ONLY - Get user by username
     @GetMapping("/username/{username}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,24 @@
+package com.ecommerce.ecommerce_backend.dto;
+
+import java.util.List;
+
+public class OrderPageDTO {
+    private List<OrderDTO> orders;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+
+    // Constructors
+    public OrderPageDTO() {}
+
+    public OrderPageDTO(List<OrderDTO> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<OrderDTO> getOrders() { return orders; }
+    public void setOrders(List<OrderDTO> orders) { this.orders = orders; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
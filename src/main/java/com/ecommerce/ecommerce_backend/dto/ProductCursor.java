@@ -0,0 +1,46 @@
+package com.ecommerce.ecommerce_backend.dto;
+
+import com.ecommerce.ecommerce_backend.repository.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the product listing: the sort it belongs to plus the
+ * sort key and id of the last product on the previous page, encoded as an
+ * opaque URL-safe string.
+ */
+public final class ProductCursor {
+
+    private final ProductSort sort;
+    private final String key;
+    private final Long id;
+
+    public ProductCursor(ProductSort sort, String key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public ProductSort getSort() { return sort; }
+    public String getKey() { return key; }
+    public Long getId() { return id; }
+
+    public String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Names may contain '|', so the key is everything between the first and the last separator
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            return new ProductCursor(ProductSort.valueOf(raw.substring(0, first)),
+                    raw.substring(first + 1, last), Long.valueOf(raw.substring(last + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
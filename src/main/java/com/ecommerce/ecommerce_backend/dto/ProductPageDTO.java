@@ -0,0 +1,24 @@
+package com.ecommerce.ecommerce_backend.dto;
+
+import java.util.List;
+
+public class ProductPageDTO {
+    private List<ProductDTO> products;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+
+    // Constructors
+    public ProductPageDTO() {}
+
+    public ProductPageDTO(List<ProductDTO> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<ProductDTO> getProducts() { return products; }
+    public void setProducts(List<ProductDTO> products) { this.products = products; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
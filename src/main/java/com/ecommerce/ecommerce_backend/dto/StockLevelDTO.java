@@ -0,0 +1,26 @@
+package com.ecommerce.ecommerce_backend.dto;
+
+public class StockLevelDTO {
+    private Long productId;
+    private Integer stockQuantity;
+    private Boolean inStock;
+
+    // Constructors
+    public StockLevelDTO() {}
+
+    public StockLevelDTO(Long productId, Integer stockQuantity, Boolean inStock) {
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+        this.inStock = inStock;
+    }
+
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public Boolean getInStock() { return inStock; }
+    public void setInStock(Boolean inStock) { this.inStock = inStock; }
+}
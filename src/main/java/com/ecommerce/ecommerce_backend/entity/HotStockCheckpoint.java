@@ -0,0 +1,34 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Highest hot stock journal segment of a SKU whose changes are already in
+ * products.stock_quantity. Written in the same transaction as the stock, so
+ * segments at or below it are skipped when journals are replayed.
+ */
+@Entity
+@Table(name = "hot_stock_checkpoints")
+public class HotStockCheckpoint {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "flushed_sequence", nullable = false)
+    private Long flushedSequence = 0L;
+
+    // Constructors
+    public HotStockCheckpoint() {}
+
+    public HotStockCheckpoint(Long productId) {
+        this.productId = productId;
+    }
+
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Long getFlushedSequence() { return flushedSequence; }
+    public void setFlushedSequence(Long flushedSequence) { this.flushedSequence = flushedSequence; }
+}
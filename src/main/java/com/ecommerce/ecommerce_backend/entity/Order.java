@@ -10,11 +10,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_created_id", columnList = "created_at, id")
+})
 public class Order {
     
+    // Ids come from id_generators in blocks of 50, so inserts can be JDBC-batched (see IdGeneratorInitializer)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_gen")
+    @TableGenerator(name = "order_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -45,6 +52,10 @@ public class Order {
     @Column
     private String stripePaymentIntentId;
     
+    // Inventory hold taken at checkout (see StockReservation)
+    @Column(name = "reservation_key", length = 36)
+    private String reservationKey;
+    
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
     
@@ -154,6 +165,14 @@ public class Order {
         this.stripePaymentIntentId = stripePaymentIntentId;
     }
     
+    public String getReservationKey() {
+        return reservationKey;
+    }
+    
+    public void setReservationKey(String reservationKey) {
+        this.reservationKey = reservationKey;
+    }
+    
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
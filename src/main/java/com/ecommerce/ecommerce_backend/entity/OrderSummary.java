@@ -0,0 +1,62 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for order listings: one row per order holding the OrderDTO as
+ * JSON, rewritten in the same transaction as every status change (writers
+ * hold the orders row lock, so they are serialized). Reads are a single
+ * index range scan on this table, with no joins or entity graph.
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+    @Index(name = "idx_order_summary_user_created", columnList = "user_id, created_at, order_id"),
+    @Index(name = "idx_order_summary_created", columnList = "created_at, order_id")
+})
+public class OrderSummary {
+
+    // Same value as orders.id
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Serialized OrderDTO
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    // Constructors
+    public OrderSummary() {}
+
+    public OrderSummary(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+}
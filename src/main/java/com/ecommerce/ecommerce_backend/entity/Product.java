@@ -8,7 +8,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// Paged listing: each (filter, sort) pair walks an index in order instead of sorting the table
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_active_price", columnList = "active, price, id"),
+    @Index(name = "idx_products_active_created", columnList = "active, created_at, id"),
+    @Index(name = "idx_products_active_name", columnList = "active, name, id"),
+    @Index(name = "idx_products_price", columnList = "price, id"),
+    @Index(name = "idx_products_created", columnList = "created_at, id"),
+    @Index(name = "idx_products_name", columnList = "name, id")
+})
 public class Product {
     
     @Id
@@ -44,6 +52,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic locking: admin edits and stock updates must not overwrite each other
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Constructors, getters, setters
     public Product() {}
     
@@ -84,5 +97,8 @@ public class Product {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
 
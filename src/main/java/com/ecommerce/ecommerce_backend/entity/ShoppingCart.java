@@ -31,6 +31,11 @@ public class ShoppingCart {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic locking: concurrent cart edits (two tabs, checkout) are detected instead of lost
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToOne
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore  // ADD THIS LINE HERE
@@ -97,4 +102,12 @@ public class ShoppingCart {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
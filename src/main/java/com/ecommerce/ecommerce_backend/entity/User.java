@@ -54,6 +54,11 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean active = true;
 
+    // Bumped to invalidate every JWT issued so far (password, username or role change, deactivation).
+    // Only ever changed by TokenRevocationService.revokeAll; entity saves never write it back.
+    @Column(name = "token_version", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -152,6 +157,9 @@ public class User implements UserDetails {
     public Boolean getActive() { return active; }
     public void setActive(Boolean active) { this.active = active; }
 
+    public Integer getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -0,0 +1,51 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByIdempotencyKey(String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    int deleteByIdempotencyKey(@Param("key") String key);
+
+    // Only the execution that owns the claim may give it up
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.ownerToken = :owner")
+    int deleteByIdempotencyKeyAndOwner(@Param("key") String key, @Param("owner") String owner);
+
+    // Claim an IN_PROGRESS key whose owner stopped renewing its lease (crashed or killed node).
+    // Rows written before leases existed have none and count as expired once older than a lease.
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.ownerToken = :owner, r.leaseExpiresAt = :leaseExpiresAt " +
+           "WHERE r.idempotencyKey = :key AND r.status = :status " +
+           "AND (r.leaseExpiresAt < :now OR (r.leaseExpiresAt IS NULL AND r.createdAt < :legacyCutoff))")
+    int takeOverExpired(@Param("key") String key,
+                        @Param("owner") String owner,
+                        @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                        @Param("now") LocalDateTime now,
+                        @Param("legacyCutoff") LocalDateTime legacyCutoff,
+                        @Param("status") IdempotencyRecord.Status status);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseExpiresAt = :leaseExpiresAt " +
+           "WHERE r.ownerToken IN :owners AND r.status = :status")
+    int renewLeases(@Param("owners") Collection<String> owners,
+                    @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                    @Param("status") IdempotencyRecord.Status status);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,10 +2,20 @@ package com.ecommerce.ecommerce_backend.repository;
 
 import com.ecommerce.ecommerce_backend.entity.Order;
 import com.ecommerce.ecommerce_backend.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -21,4 +31,48 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findAllOrdersByCreatedAtDesc();
 
     boolean existsByOrderNumber(String orderNumber);
-}
\ No newline at end of file
+
+    // Serializes checkout phase 3, compensation and recovery on the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    // Checkouts stuck in a given status since before the cutoff (oldest first)
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt < :cutoff ORDER BY o.createdAt")
+    List<Long> findIdsByStatusAndCreatedAtBefore(@Param("status") Order.OrderStatus status,
+                                                 @Param("cutoff") LocalDateTime cutoff,
+                                                 Pageable pageable);
+
+    // Order history pages: ids first (index-only on user_id, created_at, id), newest first
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByUserAfter(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIds(Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o " +
+           "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    // Everything toOrderDTO touches, in one query
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user " +
+           "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Forward-only export. Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM Order o JOIN FETCH o.user " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt, o.id")
+    Stream<Order> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    // Payload-only queries: the JSON goes straight to the caller without hydrating entities
+
+    @Query("SELECT s.payload FROM OrderSummary s WHERE s.orderId = :orderId")
+    Optional<String> findPayloadByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT s.payload FROM OrderSummary s WHERE s.userId = :userId " +
+           "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<String> findPayloadsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s.payload FROM OrderSummary s WHERE s.userId = :userId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId)) " +
+           "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<String> findPayloadsByUserAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("orderId") Long orderId,
+                                         Pageable pageable);
+
+    @Query("SELECT s.payload FROM OrderSummary s ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<String> findPayloads(Pageable pageable);
+
+    @Query("SELECT s.payload FROM OrderSummary s " +
+           "WHERE s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId) " +
+           "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<String> findPayloadsAfter(@Param("createdAt") LocalDateTime createdAt,
+                                   @Param("orderId") Long orderId,
+                                   Pageable pageable);
+
+    // Orders that have no summary yet (written before the read model existed)
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM OrderSummary s WHERE s.orderId = o.id) ORDER BY o.id")
+    List<Long> findOrderIdsWithoutSummary(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional filters of the paged product listing; null (or false for inStock) means no filter.
+ */
+public class ProductFilter {
+    private final Boolean active;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final boolean inStock;
+
+    public ProductFilter(Boolean active, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {
+        this.active = active;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+    }
+
+    public Boolean getActive() { return active; }
+    public BigDecimal getMinPrice() { return minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public boolean isInStock() { return inStock; }
+}
@@ -1,12 +1,29 @@
 package com.ecommerce.ecommerce_backend.repository;
 
 import com.ecommerce.ecommerce_backend.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findByActiveTrue();
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Stock check for many products in one round trip, without hydrating Product entities
+    @Query("SELECT p.id AS id, p.active AS active, p.stockQuantity AS stockQuantity FROM Product p WHERE p.id IN :ids")
+    List<ProductStockView> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Search index loading: text columns only, active products in id order, one batch at a time
+    @Query("SELECT p.id AS id, p.active AS active, p.name AS name, p.shortDescription AS shortDescription, " +
+           "p.description AS description FROM Product p WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+    List<ProductSearchView> findSearchTextAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.active AS active, p.name AS name, p.shortDescription AS shortDescription, " +
+           "p.description AS description FROM Product p WHERE p.id IN :ids")
+    List<ProductSearchView> findSearchTextByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
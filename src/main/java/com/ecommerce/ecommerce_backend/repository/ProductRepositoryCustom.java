@@ -0,0 +1,14 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Up to limit products matching the filter, in sort order, strictly after
+     * (afterKey, afterId) when those are given.
+     */
+    List<Product> findPage(ProductFilter filter, ProductSort sort, Comparable<?> afterKey, Long afterId, int limit);
+}
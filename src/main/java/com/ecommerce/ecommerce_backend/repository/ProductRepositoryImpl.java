@@ -0,0 +1,65 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset paging over products. The predicates line up with the composite
+ * indexes on products, e.g. active = ? ORDER BY price, id walks
+ * idx_products_active_price, so a page costs the same on page 1 and page 5000.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Product> findPage(ProductFilter filter, ProductSort sort, Comparable<?> afterKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        Path<Comparable> key = product.get(sort.getAttribute());
+        Path<Long> id = product.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.getActive() != null) {
+            where.add(cb.equal(product.get("active"), filter.getActive()));
+        }
+        if (filter.getMinPrice() != null) {
+            where.add(cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            where.add(cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            where.add(cb.greaterThan(product.get("stockQuantity"), 0));
+        }
+        if (afterKey != null && afterId != null) {
+            Comparable value = afterKey;
+            where.add(sort.isAscending()
+                    ? cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, afterId)))
+                    : cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, afterId))));
+        }
+
+        query.select(product)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(sort.isAscending()
+                        ? List.of(cb.asc(key), cb.asc(id))
+                        : List.of(cb.desc(key), cb.desc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
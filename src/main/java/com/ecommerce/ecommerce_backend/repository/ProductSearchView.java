@@ -0,0 +1,12 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+/**
+ * Read-only projection of the searchable text columns of a product
+ */
+public interface ProductSearchView {
+    Long getId();
+    Boolean getActive();
+    String getName();
+    String getShortDescription();
+    String getDescription();
+}
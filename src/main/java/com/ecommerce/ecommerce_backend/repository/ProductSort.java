@@ -0,0 +1,88 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sort orders of the paged product listing. Ties are broken by id in the
+ * same direction, so every order is total and can be paged by keyset.
+ */
+public enum ProductSort {
+    NEWEST("createdAt", false),
+    OLDEST("createdAt", true),
+    PRICE_ASC("price", true),
+    PRICE_DESC("price", false),
+    NAME_ASC("name", true),
+    NAME_DESC("name", false);
+
+    private final String attribute;
+    private final boolean ascending;
+
+    ProductSort(String attribute, boolean ascending) {
+        this.attribute = attribute;
+        this.ascending = ascending;
+    }
+
+    public String getAttribute() { return attribute; }
+    public boolean isAscending() { return ascending; }
+
+    /**
+     * Parse "field" or "field,asc|desc" (field is price, createdAt or name); null means newest first
+     */
+    public static ProductSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        String[] parts = value.split(",");
+        String field = parts[0].trim();
+        Boolean asc = null;
+        if (parts.length > 1) {
+            String direction = parts[1].trim();
+            if (direction.equalsIgnoreCase("asc")) {
+                asc = true;
+            } else if (direction.equalsIgnoreCase("desc")) {
+                asc = false;
+            } else {
+                throw new IllegalArgumentException("Invalid sort direction: " + direction);
+            }
+        }
+
+        switch (field) {
+            case "createdAt":
+                return asc != null && asc ? OLDEST : NEWEST;
+            case "price":
+                return asc == null || asc ? PRICE_ASC : PRICE_DESC;
+            case "name":
+                return asc == null || asc ? NAME_ASC : NAME_DESC;
+            default:
+                throw new IllegalArgumentException("Invalid sort field: " + field);
+        }
+    }
+
+    /**
+     * The sort key of a product, as written into a cursor
+     */
+    public String formatKey(Product product) {
+        switch (attribute) {
+            case "createdAt":
+                return product.getCreatedAt().toString();
+            case "price":
+                return product.getPrice().toPlainString();
+            default:
+                return product.getName();
+        }
+    }
+
+    public Comparable<?> parseKey(String key) {
+        switch (attribute) {
+            case "createdAt":
+                return LocalDateTime.parse(key);
+            case "price":
+                return new BigDecimal(key);
+            default:
+                return key;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+/**
+ * Read-only projection of the stock columns of a product
+ */
+public interface ProductStockView {
+    Long getId();
+    Boolean getActive();
+    Integer getStockQuantity();
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.StockReservation;
+import com.ecommerce.ecommerce_backend.entity.StockReservation.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Lock the holds of one checkout so confirm/release/sweep cannot interleave on them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.reservationKey = :key AND r.status = :status")
+    List<StockReservation> findByKeyAndStatusForUpdate(@Param("key") String key,
+                                                       @Param("status") ReservationStatus status);
+
+    // Oldest expired holds first; rows locked by another sweeper or checkout are skipped (-2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<StockReservation> findExpiredForUpdate(@Param("status") ReservationStatus status,
+                                                @Param("now") LocalDateTime now,
+                                                Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.updatedAt = :now WHERE r.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") ReservationStatus status,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.status <> :status AND r.updatedAt < :cutoff")
+    int deleteFinishedBefore(@Param("status") ReservationStatus activeStatus,
+                             @Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,6 +2,9 @@ package com.ecommerce.ecommerce_backend.repository;
 
 import com.ecommerce.ecommerce_backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -11,4 +14,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Login: the cart id is part of the response, so fetch it in the same query
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.shoppingCart WHERE u.username = :username")
+    Optional<User> findWithCartByUsername(@Param("username") String username);
+
+    // Rehash after a BCrypt cost change; leaves token_version alone since the password itself is unchanged
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Current token version of an active user; empty for unknown or deactivated users
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id AND u.active = true")
+    Optional<Integer> findActiveTokenVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
\ No newline at end of file
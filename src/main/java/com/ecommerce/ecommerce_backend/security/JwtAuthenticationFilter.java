@@ -5,8 +5,13 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,66 +19,186 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Not "logger": that name is taken by the commons-logging field inherited from GenericFilterBean
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
     
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${security.jwt.stateless:true}")
+    private boolean statelessAuth;
+
+    // Fraction of requests traced when DEBUG is enabled for this filter
+    @Value("${logging.auth.debug-sample-rate:0.01}")
+    private double debugSampleRate;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         final String requestTokenHeader = request.getHeader("Authorization");
-        
-        System.out.println("=== JWT Filter Debug ===");
-        System.out.println("Request URL: " + request.getRequestURL());
-        System.out.println("Authorization Header: " + (requestTokenHeader != null ? "Present" : "Missing"));
-    
-        String username = null;
-        String jwtToken = null;
+        final boolean debug = sampleDebug();
+
+        if (debug) {
+            log.debug("🔎 {} {} (Authorization header {})", request.getMethod(), request.getRequestURI(),
+                    requestTokenHeader != null ? "present" : "missing");
+        }
     
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
-            System.out.println("JWT Token extracted: " + jwtToken.substring(0, Math.min(50, jwtToken.length())) + "...");
-            try {
-                username = jwtUtil.extractUsername(jwtToken);
-                System.out.println("Username extracted: " + username);
-            } catch (Exception e) {
-                System.out.println("JWT ERROR: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-                logger.error("Unable to get JWT Token or JWT Token has expired", e);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                authenticate(requestTokenHeader.substring(7), request, debug);
             }
+        } else if (debug) {
+            log.debug("No Bearer token found");
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Whether to trace this request: only with DEBUG on for this class, and then
+     * only for a sample of requests so debugging production stays affordable
+     */
+    private boolean sampleDebug() {
+        if (!log.isDebugEnabled() || debugSampleRate <= 0) {
+            return false;
+        }
+        return debugSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < debugSampleRate;
+    }
+
+    private void authenticate(String jwtToken, HttpServletRequest request, boolean debug) {
+        // With stateless auth off every request must re-load the user, so a cache hit would skip exactly that
+        if (statelessAuth && verifiedTokenCache.isEnabled()) {
+            String tokenHash = ParsedToken.hash(jwtToken);
+            VerifiedTokenCache.Entry cached = verifiedTokenCache.get(tokenHash);
+            if (cached != null) {
+                authenticateFromCache(tokenHash, cached, request, debug);
+                return;
+            }
+        }
+
+        ParsedToken parsedToken;
+        try {
+            // Signature and expiry are verified here, once per token until it leaves the cache
+            parsedToken = jwtUtil.parse(jwtToken);
+        } catch (Exception e) {
+            // Expired or forged tokens are routine; no stack trace
+            log.warn("⚠️ Rejected JWT: {} - {}", e.getClass().getSimpleName(), e.getMessage());
+            return;
+        }
+
+        if (parsedToken.getSubject() == null) {
+            return;
+        }
+        if (statelessAuth && parsedToken.getUserId() != null && parsedToken.getTokenVersion() != null) {
+            authenticateFromClaims(parsedToken, request, debug);
         } else {
-            System.out.println("No Bearer token found");
+            authenticateFromDatabase(parsedToken, request, debug);
         }
-    
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                System.out.println("User found: " + userDetails.getUsername());
-                System.out.println("User authorities: " + userDetails.getAuthorities());
-    
-                if (jwtUtil.validateToken(jwtToken, userDetails)) {
-                    System.out.println("JWT Token is VALID");
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("Authentication set successfully");
-                } else {
-                    System.out.println("JWT Token is INVALID");
+    }
+
+    // Revocation is still honored on a hit: both checks are in-memory lookups
+    private void authenticateFromCache(String tokenHash, VerifiedTokenCache.Entry cached,
+                                       HttpServletRequest request, boolean debug) {
+        try {
+            if (tokenRevocationService.isDenied(tokenHash)) {
+                log.info("🚫 Revoked token presented for {}", cached.getAuthentication().getName());
+                verifiedTokenCache.invalidate(tokenHash);
+                return;
+            }
+            if (cached.getUserId() == null || cached.getTokenVersion() == null
+                    || !tokenRevocationService.isCurrent(cached.getUserId(), cached.getTokenVersion())) {
+                log.info("🚫 Revoked token presented for {}", cached.getAuthentication().getName());
+                verifiedTokenCache.invalidate(tokenHash);
+                return;
+            }
+        } catch (Exception e) {
+            log.error("❌ Could not check token version", e);
+            return;
+        }
+        UsernamePasswordAuthenticationToken authentication = cached.getAuthentication();
+        setAuthentication(authentication.getPrincipal(), authentication.getAuthorities(), request);
+        if (debug) {
+            log.debug("✅ Authenticated {} from token cache", authentication.getName());
+        }
+    }
+
+    /**
+     * Build the principal from the token's claims; only the (cached) token version is checked
+     */
+    private void authenticateFromClaims(ParsedToken parsedToken, HttpServletRequest request, boolean debug) {
+        try {
+            if (!tokenRevocationService.isHonored(parsedToken)) {
+                log.info("🚫 Revoked token presented for {}", parsedToken.getSubject());
+                return;
+            }
+        } catch (Exception e) {
+            log.error("❌ Could not check token version", e);
+            return;
+        }
+        List<SimpleGrantedAuthority> authorities = parsedToken.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        UserDetails principal = org.springframework.security.core.userdetails.User
+                .withUsername(parsedToken.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+        verifiedTokenCache.put(parsedToken, setAuthentication(principal, principal.getAuthorities(), request));
+        if (debug) {
+            log.debug("✅ Authenticated {} from token claims {}", parsedToken.getSubject(), parsedToken.getRoles());
+        }
+    }
+
+    // Tokens issued before the uid/tv claims existed, or stateless auth switched off.
+    // Not cached: a hit could not re-check the user, so renames and deactivations would go unnoticed.
+    private void authenticateFromDatabase(ParsedToken parsedToken, HttpServletRequest request, boolean debug) {
+        try {
+            if (tokenRevocationService.isDenied(parsedToken)) {
+                log.info("🚫 Revoked token presented for {}", parsedToken.getSubject());
+                return;
+            }
+            UserDetails userDetails = userService.loadUserByUsername(parsedToken.getSubject());
+
+            if (!userDetails.isEnabled()) {
+                log.info("🚫 Token presented for deactivated user {}", parsedToken.getSubject());
+            } else if (jwtUtil.validateToken(parsedToken, userDetails)) {
+                setAuthentication(userDetails, userDetails.getAuthorities(), request);
+                if (debug) {
+                    log.debug("✅ Authenticated {} from database {}", userDetails.getUsername(), userDetails.getAuthorities());
                 }
-            } catch (Exception e) {
-                System.out.println("User loading error: " + e.getMessage());
-                logger.error("Error loading user details", e);
+            } else {
+                log.info("🚫 Token of {} does not match the stored user", parsedToken.getSubject());
             }
+        } catch (Exception e) {
+            log.error("❌ Error loading user details for {}: {}", parsedToken.getSubject(), e.getMessage());
         }
-        
-        System.out.println("=== End JWT Filter Debug ===");
-        filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UsernamePasswordAuthenticationToken setAuthentication(Object principal,
+                                                                  Collection<? extends GrantedAuthority> authorities,
+                                                                  HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken =
+            new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return authToken;
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.ecommerce_backend.security;
 
+import com.ecommerce.ecommerce_backend.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -20,8 +22,26 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private Long expiration;
 
+    // Built once: both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verify the signature and expiry once; read everything else from the result.
+     * Throws JwtException if the token is invalid or expired.
+     */
+    public ParsedToken parse(String token) {
+        return new ParsedToken(token, parser.parseSignedClaims(token).getPayload());
     }
 
     public String extractUsername(String token) {
@@ -38,15 +58,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -55,18 +67,17 @@ public class JwtUtil {
         claims.put("roles", userDetails.getAuthorities().stream()
             .map(authority -> authority.getAuthority())
             .collect(Collectors.toList()));
+        // User id and token version let the filter authenticate without loading the user
+        if (userDetails instanceof User) {
+            User user = (User) userDetails;
+            claims.put("uid", user.getId());
+            claims.put("tv", user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
     public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        Object rolesObj = claims.get("roles");
-        if (rolesObj instanceof List<?>) {
-            return ((List<?>) rolesObj).stream()
-                .map(Object::toString)
-                .collect(Collectors.toList());
-        }
-        return new ArrayList<>(); // Return empty list if no roles found
+        return parse(token).getRoles();
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -80,13 +91,16 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parse(token), userDetails);
+    }
+
+    public Boolean validateToken(ParsedToken token, UserDetails userDetails) {
+        return token.getSubject().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token);
+            parser.parseSignedClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,95 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A JWT whose signature and expiry have already been verified, so callers can
+ * read its claims without parsing the token again.
+ */
+public final class ParsedToken {
+
+    private final String token;
+    private final Claims claims;
+    private final List<String> roles;
+    private String tokenHash;
+
+    ParsedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+        this.roles = readRoles(claims);
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    // Set by tokens issued since stateless authentication; null on older tokens
+    public Long getUserId() {
+        Object uid = claims.get("uid");
+        return uid instanceof Number ? ((Number) uid).longValue() : null;
+    }
+
+    public Integer getTokenVersion() {
+        Object tv = claims.get("tv");
+        return tv instanceof Number ? ((Number) tv).intValue() : null;
+    }
+
+    /**
+     * SHA-256 of the raw token, hex encoded: identifies the token without keeping it around
+     */
+    public String getTokenHash() {
+        if (tokenHash == null) {
+            tokenHash = hash(token);
+        }
+        return tokenHash;
+    }
+
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public boolean isExpired() {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static List<String> readRoles(Claims claims) {
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof List<?>) {
+            return Collections.unmodifiableList(((List<?>) rolesObj).stream()
+                    .map(Object::toString)
+                    .collect(Collectors.toList()));
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,172 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import com.ecommerce.ecommerce_backend.dto.MessageResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting per route and client (see RateLimitProperties).
+ *
+ * Runs inside the security filter chain right after JWT authentication, so
+ * USER-keyed routes can use the authenticated name. Buckets live in a
+ * ConcurrentHashMap and are lock-free themselves; idle ones are swept
+ * periodically so the map only holds recently active clients.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<CompiledRoute> routes;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void compileRoutes() {
+        List<CompiledRoute> compiled = new ArrayList<>();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            compiled.add(new CompiledRoute(route, PathPatternParser.defaultInstance.parse(route.getPath()),
+                    meterRegistry.counter("rate_limit.rejected", "route", route.getName())));
+        }
+        routes = compiled;
+        log.info("🚦 Rate limits active for routes {}", routes.stream().map(r -> r.route.getName()).toList());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CompiledRoute route = properties.isEnabled() ? match(request) : null;
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String key = route.route.getName() + '|' + clientKey(route.route.getKey(), request);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> route.newBucket(now));
+        }
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new MessageResponseDTO("Too many requests, retry in " + retryAfterSeconds + "s"));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("🧹 Evicted {} idle rate limit buckets, {} active", evicted, buckets.size());
+        }
+    }
+
+    private CompiledRoute match(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("OPTIONS".equals(method)) {
+            // CORS preflights must not eat into the caller's budget
+            return null;
+        }
+        PathContainer path = null;
+        for (CompiledRoute route : routes) {
+            if (route.matchesMethod(method)) {
+                if (path == null) {
+                    path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+                }
+                if (route.pattern.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(RateLimitProperties.KeyType keyType, HttpServletRequest request) {
+        switch (keyType) {
+            case ROUTE:
+                return "*";
+            case USER:
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.isAuthenticated()
+                        && !(authentication instanceof AnonymousAuthenticationToken)) {
+                    return "u:" + authentication.getName();
+                }
+                return request.getRemoteAddr();
+            default:
+                // Behind a proxy, set server.forward-headers-strategy so this is the real client
+                return request.getRemoteAddr();
+        }
+    }
+
+    private static final class CompiledRoute {
+        final RateLimitProperties.Route route;
+        final PathPattern pattern;
+        final Counter rejected;
+
+        CompiledRoute(RateLimitProperties.Route route, PathPattern pattern, Counter rejected) {
+            this.route = route;
+            this.pattern = pattern;
+            this.rejected = rejected;
+        }
+
+        boolean matchesMethod(String method) {
+            return route.getMethod() == null || route.getMethod().isEmpty()
+                    || route.getMethod().equalsIgnoreCase(method);
+        }
+
+        TokenBucket newBucket(long now) {
+            return new TokenBucket(route.getCapacity(), route.getRefillPerSecond(), now);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route request limits (rate-limit.*). The first route whose method and
+ * path match a request applies; requests matching no route are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    public enum KeyType {
+        // One bucket per client address
+        IP,
+        // One bucket per authenticated user, falling back to the address for anonymous calls
+        USER,
+        // One bucket shared by every caller of the route
+        ROUTE
+    }
+
+    private boolean enabled = true;
+
+    // Buckets untouched (and full) for this long are dropped
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private List<Route> routes = defaultRoutes();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public List<Route> getRoutes() { return routes; }
+    public void setRoutes(List<Route> routes) { this.routes = routes; }
+
+    private static List<Route> defaultRoutes() {
+        List<Route> routes = new ArrayList<>();
+        routes.add(new Route("login", "POST", "/api/auth/login", 10, 0.5, KeyType.IP));
+        routes.add(new Route("checkout", "POST", "/api/orders", 20, 1, KeyType.USER));
+        routes.add(new Route("catalog", "GET", "/api/products/**", 200, 50, KeyType.IP));
+        return routes;
+    }
+
+    public static class Route {
+        private String name;
+        // Null or empty matches every method
+        private String method;
+        private String path;
+        // Burst size: requests allowed back to back on a full bucket
+        private int capacity;
+        private double refillPerSecond;
+        private KeyType key = KeyType.IP;
+
+        public Route() {}
+
+        public Route(String name, String method, String path, int capacity, double refillPerSecond, KeyType key) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.key = key;
+        }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+
+        public KeyType getKey() { return key; }
+        public void setKey(KeyType key) { this.key = key; }
+    }
+}
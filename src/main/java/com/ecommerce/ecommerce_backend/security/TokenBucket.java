@@ -0,0 +1,55 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single long.
+ *
+ * Instead of a token count plus a last-refill time, the bucket stores the
+ * "theoretical arrival time" (GCRA): the instant at which it would be full
+ * again. Taking a token pushes that instant one refill interval forward;
+ * a request is refused while it lies more than capacity - 1 intervals
+ * ahead of now. Refill is implicit in the passing of time, so there is no
+ * refill task and a take is one CAS on the happy path.
+ */
+public final class TokenBucket {
+
+    private final long refillIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.refillIntervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstToleranceNanos = (capacity - 1) * refillIntervalNanos;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take one token.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long waitNanos = base - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, base + refillIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Full and untouched for at least idleNanos, i.e. indistinguishable from a new bucket
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - fullAt.get() >= idleNanos;
+    }
+}
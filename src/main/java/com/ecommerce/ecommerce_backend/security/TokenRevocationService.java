@@ -0,0 +1,141 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a verified JWT is still honored, without loading the user.
+ *
+ * Two mechanisms:
+ * - token version: every token carries the user's token_version at issue time;
+ *   bumping it in the database revokes all of that user's tokens at once.
+ *   Versions are cached per user for a short TTL, so a revocation made on
+ *   another node takes effect within that TTL.
+ * - denylist: single tokens (logout) are remembered by hash until they expire.
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Cached version for users that are unknown or deactivated: matches no token
+    private static final int NO_VERSION = -1;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.jwt.version-cache-ttl:PT30S}")
+    private Duration versionCacheTtl;
+
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    // token hash -> expiry (epoch millis)
+    private final Map<String, Long> denylist = new ConcurrentHashMap<>();
+
+    /**
+     * True if the token was not logged out and its version is still the user's current one
+     */
+    public boolean isHonored(ParsedToken token) {
+        if (isDenied(token)) {
+            return false;
+        }
+        Long userId = token.getUserId();
+        Integer tokenVersion = token.getTokenVersion();
+        return userId != null && tokenVersion != null && isCurrent(userId, tokenVersion);
+    }
+
+    public boolean isDenied(ParsedToken token) {
+        return !denylist.isEmpty() && isDenied(token.getTokenHash());
+    }
+
+    public boolean isDenied(String tokenHash) {
+        return !denylist.isEmpty() && denylist.containsKey(tokenHash);
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return currentVersion(userId) == tokenVersion;
+    }
+
+    /**
+     * Log out a single token
+     */
+    public void deny(ParsedToken token) {
+        long expiresAt = token.getExpiration() != null ? token.getExpiration().getTime() : Long.MAX_VALUE;
+        denylist.put(token.getTokenHash(), expiresAt);
+    }
+
+    /**
+     * Revoke every token of the user issued so far. Joins the caller's transaction;
+     * the local cache is dropped once it commits.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        evictAfterCommit(userId);
+        logger.info("🔑 All tokens of user {} revoked", userId);
+    }
+
+    /**
+     * Forget the cached version (user deleted or deactivated)
+     */
+    public void evict(Long userId) {
+        evictAfterCommit(userId);
+    }
+
+    private void evictAfterCommit(Long userId) {
+        versions.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Also drop anything a concurrent request cached from the old row before we committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.remove(userId);
+                }
+            });
+        }
+    }
+
+    private int currentVersion(Long userId) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAt < versionCacheTtl.toNanos()) {
+            return cached.version;
+        }
+        int version = userRepository.findActiveTokenVersion(userId).orElse(NO_VERSION);
+        versions.put(userId, new CachedVersion(version, now));
+        return version;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.denylist-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        denylist.values().removeIf(expiresAt -> expiresAt < now);
+
+        long ttl = versionCacheTtl.toNanos();
+        long nanos = System.nanoTime();
+        versions.values().removeIf(cached -> nanos - cached.loadedAt >= ttl);
+    }
+
+    private static final class CachedVersion {
+        final int version;
+        final long loadedAt;
+
+        CachedVersion(int version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
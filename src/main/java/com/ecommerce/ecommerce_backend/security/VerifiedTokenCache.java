@@ -0,0 +1,196 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bearer tokens that already passed signature verification, keyed by SHA-256
+ * of the raw token, so repeat requests with the same token skip HMAC
+ * verification, claim parsing and building the Authentication.
+ *
+ * Only tokens carrying a user id and token version are cached, and only with
+ * stateless auth on: every hit re-checks the denylist and the version, so a
+ * revoked, deactivated or re-roled user's token stops working on a hit too.
+ *
+ * Entries live for at most security.jwt.token-cache.ttl and never past the
+ * token's own expiry. The map is capped at max-size: when full, expired
+ * entries are swept first and then the oldest-inserted ones are dropped.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.jwt.token-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.jwt.token-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.jwt.token-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Only one thread sweeps when the cache is full; others insert and move on
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter expiredEvictions;
+    private Counter sizeEvictions;
+    private Counter invalidations;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = meterRegistry.counter("jwt.token_cache.requests", "result", "hit");
+        misses = meterRegistry.counter("jwt.token_cache.requests", "result", "miss");
+        expiredEvictions = meterRegistry.counter("jwt.token_cache.evictions", "cause", "expired");
+        sizeEvictions = meterRegistry.counter("jwt.token_cache.evictions", "cause", "size");
+        invalidations = meterRegistry.counter("jwt.token_cache.evictions", "cause", "invalidated");
+        meterRegistry.gauge("jwt.token_cache.size", entries, Map::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The cached entry for this token hash, or null if absent or expired
+     */
+    public Entry get(String tokenHash) {
+        Entry entry = entries.get(tokenHash);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(tokenHash, entry)) {
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    public void put(ParsedToken token, UsernamePasswordAuthenticationToken authentication) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        if (token.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, token.getExpiration().getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(token.getTokenHash(), new Entry(authentication, token.getUserId(),
+                token.getSubject(), token.getTokenVersion(), expiresAt));
+    }
+
+    public void invalidate(String tokenHash) {
+        if (entries.remove(tokenHash) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Drop every cached token of the user (role change, deactivation, password change).
+     * Matches on id and on username because tokens issued before the id claim only have the latter.
+     */
+    public void invalidateUser(Long userId, String username) {
+        removeIf(entry -> (userId != null && userId.equals(entry.userId))
+                || (username != null && username.equals(entry.username)), invalidations);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.token-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        removeIf(entry -> entry.isExpired(now), expiredEvictions);
+    }
+
+    private void makeRoom(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            removeIf(entry -> entry.isExpired(now), expiredEvictions);
+
+            // Still full: drop the oldest tenth so the next sweep is not one insert away
+            int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+            if (excess > 0) {
+                entries.entrySet().stream()
+                        .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(a.createdAt, b.createdAt)))
+                        .limit(excess)
+                        .forEach(oldest -> {
+                            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                                sizeEvictions.increment();
+                            }
+                        });
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void removeIf(Predicate<Entry> condition, Counter counter) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (condition.test(iterator.next())) {
+                iterator.remove();
+                counter.increment();
+            }
+        }
+    }
+
+    public static final class Entry {
+        private final UsernamePasswordAuthenticationToken authentication;
+        private final Long userId;
+        private final String username;
+        private final Integer tokenVersion;
+        private final long expiresAt;
+        private final long createdAt = System.currentTimeMillis();
+
+        Entry(UsernamePasswordAuthenticationToken authentication, Long userId, String username,
+              Integer tokenVersion, long expiresAt) {
+            this.authentication = authentication;
+            this.userId = userId;
+            this.username = username;
+            this.tokenVersion = tokenVersion;
+            this.expiresAt = expiresAt;
+        }
+
+        public UsernamePasswordAuthenticationToken getAuthentication() {
+            return authentication;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Integer getTokenVersion() {
+            return tokenVersion;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.CreateOrderRequestDTO;
+import com.ecommerce.ecommerce_backend.dto.OrderDTO;
+import com.ecommerce.ecommerce_backend.entity.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the payment and confirmation phases of checkout on a bounded worker pool.
+ *
+ * The request thread only does phase 1 (validate, hold stock, persist the
+ * PENDING order) and returns. A permit is taken before phase 1, so when all
+ * workers are busy and the queue is full the request is turned away before
+ * any order or hold is created. Clients follow the order by polling
+ * /api/orders/me/{orderId} or through a server-sent event stream.
+ *
+ * Jobs still queued at shutdown are dropped; their PENDING orders are
+ * finished or cancelled by CheckoutRecoveryJob.
+ */
+@Service
+public class AsyncCheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${checkout.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${checkout.async.workers:16}")
+    private int workers;
+
+    @Value("${checkout.async.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${checkout.async.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    // Running + queued jobs; never more than workers + queueCapacity
+    private Semaphore capacity;
+
+    // Open event streams per order id (only for jobs running on this node)
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        capacity = new Semaphore(workers + queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            List<Runnable> dropped = executor.shutdownNow();
+            logger.warn("⚠️ {} queued checkouts left to the recovery job", dropped.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Create the order as PENDING and queue the rest of the checkout.
+     * Returns the pending order; throws CheckoutBusyException when the queue is full.
+     */
+    public OrderDTO submit(String username, CreateOrderRequestDTO request) {
+        if (!capacity.tryAcquire()) {
+            throw new CheckoutBusyException("Checkout is busy, please retry shortly");
+        }
+
+        OrderService.CheckoutContext checkout;
+        try {
+            checkout = orderService.startCheckout(username, request);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+
+        // Carry the request's correlation id over to the worker's log lines
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+
+        // Cannot be rejected: the permit reserves a worker or a queue slot
+        executor.execute(() -> {
+            if (logContext != null) {
+                MDC.setContextMap(logContext);
+            }
+            try {
+                orderService.finishCheckout(checkout, request);
+            } catch (Exception e) {
+                logger.error("❌ Async checkout of order {} failed: {}", checkout.getOrderNumber(), e.getMessage());
+            } finally {
+                capacity.release();
+                notifySubscribers(checkout.getOrderId());
+                MDC.clear();
+            }
+        });
+
+        logger.info("📨 Order {} accepted, checkout queued", checkout.getOrderNumber());
+        return orderService.getOrderById(checkout.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
+    /**
+     * Stream the order's final state once its checkout finishes.
+     * Orders that are already past PENDING get their state right away.
+     */
+    public SseEmitter subscribe(Long orderId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        subscribers.computeIfAbsent(orderId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable remove = () -> subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // Checked after registering, so a checkout finishing in between is not missed
+        orderService.getOrderById(orderId)
+                .filter(order -> order.getOrderStatus() != Order.OrderStatus.PENDING)
+                .ifPresent(order -> send(emitter, order));
+        return emitter;
+    }
+
+    private void notifySubscribers(Long orderId) {
+        List<SseEmitter> emitters = subscribers.remove(orderId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        orderService.getOrderById(orderId).ifPresent(order -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, order);
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, OrderDTO order) {
+        try {
+            emitter.send(SseEmitter.event().name("order").data(order));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream was already completed
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The public catalog as ready-to-write response bodies.
+ *
+ * The full and active lists are serialized once, as UTF-8 JSON plus a gzip
+ * copy, and shared by all requests. An admin edit drops the snapshot; the
+ * next reader rebuilds it (one at a time) and swaps it in with a single
+ * volatile write. A rebuild that overlapped a change is served to its own
+ * caller but not kept, so the following request rebuilds again.
+ *
+ * Stock movements and changes made by other nodes do not reach this node as
+ * events, so the snapshot also expires after max-age. An expired snapshot is
+ * refreshed by one reader while the others keep getting the old one; stock
+ * figures are at most max-age plus the list cache TTL old.
+ *
+ * Single products are built from ProductCatalogCache and kept per id next to
+ * the DTO they came from, so a repeat request (304 or not) never touches the
+ * serializer, and a change to one product never costs a catalog-wide rebuild.
+ * A body is only reused while the cache still hands out that same DTO.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Bodies smaller than this are sent uncompressed; gzip would barely shrink them
+    @Value("${products.snapshot.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    @Value("${products.snapshot.max-age:PT30S}")
+    private Duration maxAge;
+
+    // Same bound as the DTO cache the bodies are built from
+    @Value("${products.cache.max-size:10000}")
+    private long maxProductBodies;
+
+    private volatile Snapshot current;
+
+    private Cache<Long, ProductBody> productBodies;
+
+    // Bumped by every catalog change; a rebuild is only kept if it did not move meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object rebuildLock = new Object();
+
+    // Set while one reader refreshes an expired snapshot
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    @PostConstruct
+    void start() {
+        productBodies = Caffeine.newBuilder()
+                .maximumSize(maxProductBodies)
+                .build();
+    }
+
+    public Body allProducts() {
+        return snapshot().all;
+    }
+
+    public Body activeProducts() {
+        return snapshot().active;
+    }
+
+    /**
+     * Null if there is no such product
+     */
+    public Body product(Long id) {
+        ProductDTO product = productCatalogCache.getProduct(id).orElse(null);
+        if (product == null) {
+            productBodies.invalidate(id);
+            return null;
+        }
+        // Identity, not equals: a reloaded DTO means the row may have changed since the body was built
+        ProductBody cached = productBodies.getIfPresent(id);
+        if (cached != null && cached.source == product) {
+            return cached.body;
+        }
+        Body body = body(product, lastModified(product, System.currentTimeMillis()));
+        productBodies.put(id, new ProductBody(product, body));
+        return body;
+    }
+
+    // Runs after ProductCatalogCache has dropped its entries, so a rebuild never reads them
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Single products carry their stock, so their bodies go on every change, like their DTOs
+        productBodies.invalidateAll(event.getProductIds());
+        // Stock-only changes are left to max-age, like the list cache they are built from
+        if (event.isStockOnly()) {
+            return;
+        }
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            if (!snapshot.isExpired(maxAge)) {
+                return snapshot;
+            }
+            if (!refreshing.compareAndSet(false, true)) {
+                // Another reader is already refreshing it
+                return snapshot;
+            }
+        }
+        try {
+            synchronized (rebuildLock) {
+                Snapshot latest = current;
+                if (latest != null && !latest.isExpired(maxAge)) {
+                    return latest;
+                }
+                long startedAt = generation.get();
+                Snapshot built = build();
+                if (generation.get() == startedAt) {
+                    current = built;
+                }
+                return built;
+            }
+        } finally {
+            if (snapshot != null) {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private Snapshot build() {
+        long began = System.nanoTime();
+        List<ProductDTO> all = productCatalogCache.getAllProducts();
+
+        // Lists can lose products (deletes), which no updated_at reflects, so they carry the build time
+        long builtAt = System.currentTimeMillis();
+
+        List<ProductDTO> active = new ArrayList<>();
+        for (ProductDTO product : all) {
+            if (Boolean.TRUE.equals(product.getActive())) {
+                active.add(product);
+            }
+        }
+
+        Snapshot snapshot = new Snapshot(body(all, builtAt), body(active, builtAt), System.nanoTime());
+        logger.info("📸 Catalog snapshot rebuilt: {} products in {} ms", all.size(),
+                (System.nanoTime() - began) / 1_000_000);
+        return snapshot;
+    }
+
+    private static long lastModified(ProductDTO product, long fallback) {
+        return product.getUpdatedAt() != null
+                ? product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : fallback;
+    }
+
+    private Body body(Object value, long lastModified) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog", e);
+        }
+        return new Body(json, json.length >= gzipMinBytes ? gzip(json) : null, contentHash(json), lastModified);
+    }
+
+    // Same bytes give the same tag on every node, so a CDN can revalidate against any of them
+    private static String contentHash(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * One response body. The arrays are shared between requests and must not be modified.
+     */
+    public static final class Body {
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final String etag;
+        private final String gzipEtag;
+        private final long lastModified;
+
+        Body(byte[] json, byte[] gzipped, String hash, long lastModified) {
+            this.json = json;
+            this.gzipped = gzipped;
+            // Strong validators differ per encoding, since the bytes on the wire differ
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+            this.lastModified = lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        // Null when the body is too small to be worth compressing
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+    }
+
+    private static final class ProductBody {
+        final ProductDTO source;
+        final Body body;
+
+        ProductBody(ProductDTO source, Body body) {
+            this.source = source;
+            this.body = body;
+        }
+    }
+
+    private static final class Snapshot {
+        final Body all;
+        final Body active;
+        final long builtAtNanos;
+
+        Snapshot(Body all, Body active, long builtAtNanos) {
+            this.all = all;
+            this.active = active;
+            this.builtAtNanos = builtAtNanos;
+        }
+
+        boolean isExpired(Duration maxAge) {
+            return System.nanoTime() - builtAtNanos > maxAge.toNanos();
+        }
+    }
+}
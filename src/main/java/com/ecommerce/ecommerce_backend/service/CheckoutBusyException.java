@@ -0,0 +1,11 @@
+package com.ecommerce.ecommerce_backend.service;
+
+/**
+ * Raised when the async checkout queue is full; the client should retry later
+ */
+public class CheckoutBusyException extends RuntimeException {
+
+    public CheckoutBusyException(String message) {
+        super(message);
+    }
+}
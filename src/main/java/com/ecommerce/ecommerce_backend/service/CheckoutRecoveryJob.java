@@ -0,0 +1,51 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Finishes checkouts that were interrupted between phases (JVM crash, DB outage
+ * during confirmation, ...). Orders only become eligible once they have been
+ * PENDING for longer than any live checkout could take.
+ */
+@Component
+public class CheckoutRecoveryJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutRecoveryJob.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${checkout.recovery.stalled-after:PT10M}")
+    private Duration stalledAfter;
+
+    @Value("${checkout.recovery.batch-size:50}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${checkout.recovery.interval-ms:60000}")
+    public void recoverStalledCheckouts() {
+        List<Long> stalled;
+        try {
+            stalled = orderService.findStalledCheckouts(LocalDateTime.now().minus(stalledAfter), batchSize);
+        } catch (Exception e) {
+            logger.error("❌ Could not load stalled checkouts: {}", e.getMessage());
+            return;
+        }
+
+        for (Long orderId : stalled) {
+            try {
+                orderService.recoverCheckout(orderId);
+            } catch (Exception e) {
+                logger.error("❌ Recovery of order {} failed: {}", orderId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stock counters for SKUs flagged as hot (drops, flash sales).
+ *
+ * Every hot SKU gets its own cell with its own lock, so reservations on
+ * different SKUs never contend and reservations on the same SKU only contend
+ * in memory instead of on the MySQL row lock. Changes are accumulated per
+ * cell and written behind to products.stock_quantity in one batch per flush.
+ *
+ * A reservation is only held in memory until the order transaction
+ * completes: on commit it is appended to the cell's local journal segment, on
+ * rollback the units are simply handed back, so a crash before the commit
+ * leaves nothing to replay. Journal lines are buffered under the cell lock and
+ * pushed to the OS outside it, so concurrent reservations on one SKU share a
+ * write syscall. A flush seals the current segment and, in the same
+ * transaction as the stock, records its sequence number as the SKU's
+ * checkpoint; the segments are deleted after the commit. On restart the
+ * segments above the checkpoint are replayed before the cell is loaded, and
+ * the ones at or below it (a crash between commit and delete) are dropped.
+ *
+ * The counters live in this JVM only. With several nodes, enable the ledger
+ * on one node or give each node a disjoint set of SKUs; two nodes ledgering
+ * the same SKU would each sell its full stock.
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE hot_stock_checkpoints SET flushed_sequence = ? WHERE product_id = ? AND flushed_sequence < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.hot-ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot-ledger.skus:}")
+    private List<Long> hotSkus;
+
+    @Value("${inventory.hot-ledger.journal-dir:./data/hot-stock-journal}")
+    private String journalDir;
+
+    // Cells are created once at startup and never change, so lookups need no locking
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    // Seeded from the checkpoints and journals at startup, so it keeps growing across restarts
+    private final AtomicLong segmentSequence = new AtomicLong();
+
+    // Held from draining the cells until the batch has committed (or been put back), so
+    // reload never reads the database while drained changes are in flight
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled || hotSkus.isEmpty()) {
+            return;
+        }
+
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+
+        replayJournals(dir);
+
+        for (Long productId : hotSkus) {
+            Cell cell = new Cell(productId);
+            loadStock(cell);
+            cell.openSegment(dir, segmentSequence.incrementAndGet());
+            cells.put(productId, cell);
+        }
+
+        logger.info("🔥 Hot stock ledger active for SKUs {}", cells.keySet());
+    }
+
+    public boolean isHot(Long productId) {
+        return cells.containsKey(productId);
+    }
+
+    /**
+     * Hold all given hot SKUs or none of them. The hold is in memory only until
+     * commit (transaction committed) or cancel (rolled back) is called for it.
+     */
+    public boolean tryReserve(Map<Long, Integer> productQuantities) {
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(productQuantities).entrySet()) {
+            if (!cell(entry.getKey()).tryReserve(entry.getValue())) {
+                for (Map.Entry<Long, Integer> done : reserved) {
+                    cell(done.getKey()).cancel(done.getValue());
+                }
+                return false;
+            }
+            reserved.add(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Make held units a durable stock change, once the order that took them has committed
+     */
+    public void commit(Map<Long, Integer> productQuantities) {
+        journalAll(productQuantities, true);
+    }
+
+    /**
+     * Give back held units whose transaction did not commit; nothing was journaled for them
+     */
+    public void cancel(Map<Long, Integer> productQuantities) {
+        for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
+            cell(entry.getKey()).cancel(entry.getValue());
+        }
+    }
+
+    /**
+     * Return committed units to stock (released reservation, cancelled order)
+     */
+    public void release(Map<Long, Integer> productQuantities) {
+        journalAll(productQuantities, false);
+    }
+
+    // Write every line under its cell's lock first, then push them to the OS with the locks released
+    private void journalAll(Map<Long, Integer> productQuantities, boolean reserved) {
+        Map<Cell, Long> tickets = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
+            Cell cell = cell(entry.getKey());
+            tickets.put(cell, reserved ? cell.commit(entry.getValue()) : cell.release(entry.getValue()));
+        }
+        for (Map.Entry<Cell, Long> ticket : tickets.entrySet()) {
+            ticket.getKey().sync(ticket.getValue());
+        }
+    }
+
+    /**
+     * Stock as seen by the ledger, which is ahead of the database between flushes
+     */
+    public int getAvailable(Long productId) {
+        return cell(productId).available();
+    }
+
+    /**
+     * Re-read a hot SKU from the database after an admin update (absolute stock, active flag).
+     * Changes not flushed yet are kept on top of the new value.
+     */
+    public void reload(Long productId) {
+        Cell cell = cells.get(productId);
+        if (cell == null) {
+            return;
+        }
+        // A flush in progress has taken its changes out of pendingDelta but may not have committed them
+        flushLock.lock();
+        try {
+            cell.lock.lock();
+            try {
+                loadStock(cell);
+            } finally {
+                cell.lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Caller holds the cell lock (or owns the cell exclusively during startup)
+    private void loadStock(Cell cell) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT stock_quantity, active FROM products WHERE id = ?", cell.productId);
+        Number stock = (Number) row.get("stock_quantity");
+        // Units held by transactions still in flight are not in the database or in pendingDelta yet
+        cell.available = (stock != null ? stock.intValue() : 0) + (int) cell.pendingDelta - cell.held;
+        // BIT/BOOLEAN columns come back as Boolean, TINYINT ones as a number depending on the driver
+        Object active = row.get("active");
+        cell.active = Boolean.TRUE.equals(active) || (active instanceof Number && ((Number) active).intValue() != 0);
+    }
+
+    /**
+     * Write the accumulated changes of all cells to MySQL in one batch.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-ledger.flush-interval-ms:1000}")
+    public void flush() {
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void doFlush() {
+        Path dir = Paths.get(journalDir);
+        List<Object[]> batch = new ArrayList<>();
+        List<Object[]> checkpoints = new ArrayList<>();
+        Map<Cell, Long> drained = new HashMap<>();
+        Map<Cell, List<Path>> sealed = new HashMap<>();
+
+        for (Cell cell : cells.values()) {
+            cell.lock.lock();
+            try {
+                long delta = cell.pendingDelta;
+                if (!cell.dirty && cell.sealedSegments.isEmpty()) {
+                    continue;
+                }
+                cell.pendingDelta = 0;
+                // Everything up to this segment (and any left over from failed flushes) is in delta
+                long sealedSequence = cell.segmentSequence;
+                cell.sealedSegments.add(cell.segment);
+                cell.openSegment(dir, segmentSequence.incrementAndGet());
+
+                drained.put(cell, delta);
+                sealed.put(cell, new ArrayList<>(cell.sealedSegments));
+                checkpoints.add(new Object[]{sealedSequence, cell.productId, sealedSequence});
+                if (delta != 0) {
+                    batch.add(new Object[]{delta, cell.productId});
+                }
+            } finally {
+                cell.lock.unlock();
+            }
+        }
+
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+                }
+                jdbcTemplate.batchUpdate(CHECKPOINT_SQL, checkpoints);
+            });
+        } catch (Exception e) {
+            // Put the deltas back; the sealed segments stay on disk until a flush succeeds
+            for (Map.Entry<Cell, Long> entry : drained.entrySet()) {
+                Cell cell = entry.getKey();
+                cell.lock.lock();
+                try {
+                    cell.pendingDelta += entry.getValue();
+                } finally {
+                    cell.lock.unlock();
+                }
+            }
+            logger.error("❌ Hot stock flush failed, will retry: {}", e.getMessage());
+            return;
+        }
+
+        if (!batch.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(
+                    batch.stream().map(row -> (Long) row[1]).collect(Collectors.toList())));
+        }
+
+        for (Map.Entry<Cell, List<Path>> entry : sealed.entrySet()) {
+            Cell cell = entry.getKey();
+            cell.lock.lock();
+            try {
+                for (Path segment : entry.getValue()) {
+                    Files.deleteIfExists(segment);
+                    cell.sealedSegments.remove(segment);
+                }
+            } catch (IOException e) {
+                // Harmless: the checkpoint already covers it, so replay will skip it
+                logger.warn("⚠️ Could not delete flushed journal segment: {}", e.getMessage());
+            } finally {
+                cell.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+        for (Cell cell : cells.values()) {
+            cell.closeSegment();
+        }
+    }
+
+    private Cell cell(Long productId) {
+        Cell cell = cells.get(productId);
+        if (cell == null) {
+            throw new IllegalArgumentException("Product " + productId + " is not a hot SKU");
+        }
+        return cell;
+    }
+
+    /**
+     * Apply whatever the previous run journaled but never flushed.
+     * Segments at or below their SKU's checkpoint were flushed already and are only deleted.
+     */
+    private void replayJournals(Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Set<Long> productIds = new TreeSet<>(hotSkus);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "sku-*.journal")) {
+            for (Path segment : stream) {
+                segments.add(segment);
+                productIds.add(segmentProductId(segment));
+            }
+        }
+
+        for (Long productId : productIds) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM hot_stock_checkpoints WHERE product_id = ?", Integer.class, productId);
+            if (existing == null || existing == 0) {
+                jdbcTemplate.update(
+                        "INSERT INTO hot_stock_checkpoints (product_id, flushed_sequence) VALUES (?, 0)", productId);
+            }
+        }
+        Map<Long, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, flushed_sequence FROM hot_stock_checkpoints", rs -> {
+            checkpoints.put(rs.getLong("product_id"), rs.getLong("flushed_sequence"));
+        });
+        checkpoints.values().forEach(sequence -> segmentSequence.accumulateAndGet(sequence, Math::max));
+
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> unflushed = new TreeMap<>();
+        Map<Long, Long> lastSequence = new TreeMap<>();
+        int skipped = 0;
+        for (Path segment : segments) {
+            Long productId = segmentProductId(segment);
+            long sequence = segmentSequence(segment);
+            segmentSequence.accumulateAndGet(sequence, Math::max);
+            if (sequence <= checkpoints.getOrDefault(productId, 0L)) {
+                skipped++;
+                continue;
+            }
+            long sum = 0;
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    sum += Long.parseLong(line.trim());
+                }
+            }
+            unflushed.merge(productId, sum, Long::sum);
+            lastSequence.merge(productId, sequence, Math::max);
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        unflushed.forEach((productId, delta) -> {
+            if (delta != 0) {
+                batch.add(new Object[]{delta, productId});
+            }
+        });
+        List<Object[]> replayed = new ArrayList<>();
+        lastSequence.forEach((productId, sequence) -> replayed.add(new Object[]{sequence, productId, sequence}));
+        if (!replayed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+                }
+                jdbcTemplate.batchUpdate(CHECKPOINT_SQL, replayed);
+            });
+        }
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+
+        logger.info("♻️ Replayed hot stock journal segments: {} (skipped {} already flushed)", unflushed, skipped);
+    }
+
+    // sku-<productId>-<millis>-<sequence>.journal
+    private static Long segmentProductId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.valueOf(name.substring(4, name.indexOf('-', 4)));
+    }
+
+    private static long segmentSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('-') + 1, name.length() - ".journal".length()));
+    }
+
+    /**
+     * One hot SKU. All fields are guarded by lock.
+     */
+    private static final class Cell {
+        final Long productId;
+        final ReentrantLock lock = new ReentrantLock();
+        final List<Path> sealedSegments = new ArrayList<>();
+        // Guards writer flush/close and synced; taken after lock, never before it
+        final Object syncMonitor = new Object();
+        int available;
+        // Reserved by transactions that have neither committed nor rolled back yet
+        int held;
+        // Same guard as the SQL reservation path: a deactivated SKU is not sold
+        boolean active;
+        long pendingDelta;
+        boolean dirty;
+        Path segment;
+        long segmentSequence;
+        volatile BufferedWriter writer;
+        // Lines written to the writer so far, and how many of them reached the OS (under syncMonitor)
+        volatile long journaled;
+        long synced;
+
+        Cell(Long productId) {
+            this.productId = productId;
+        }
+
+        boolean tryReserve(int quantity) {
+            lock.lock();
+            try {
+                if (!active || available < quantity) {
+                    return false;
+                }
+                available -= quantity;
+                held += quantity;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cancel(int quantity) {
+            lock.lock();
+            try {
+                available += quantity;
+                held -= quantity;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Returns the ticket to sync on
+        long commit(int quantity) {
+            lock.lock();
+            try {
+                held -= quantity;
+                pendingDelta -= quantity;
+                return journal(-quantity);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long release(int quantity) {
+            lock.lock();
+            try {
+                available += quantity;
+                pendingDelta += quantity;
+                return journal(quantity);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int available() {
+            lock.lock();
+            try {
+                return available;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds lock. Only buffers the line; sync(ticket) hands it to the OS.
+        // The order has committed by now, so a write error is logged rather than thrown:
+        // the change still reaches the database with the next flush unless the JVM dies first.
+        private long journal(long delta) {
+            dirty = true;
+            try {
+                writer.write(Long.toString(delta));
+                writer.newLine();
+            } catch (IOException e) {
+                logger.error("❌ Could not journal stock change {} for product {}: {}", delta, productId, e.getMessage());
+            }
+            return ++journaled;
+        }
+
+        /**
+         * Group commit: whoever gets the monitor first flushes every line buffered so far,
+         * so threads queued behind it usually find their line already written and return.
+         */
+        void sync(long ticket) {
+            synchronized (syncMonitor) {
+                if (synced >= ticket) {
+                    return;
+                }
+                long upTo = journaled;
+                try {
+                    writer.flush();
+                    synced = upTo;
+                } catch (IOException e) {
+                    logger.error("❌ Could not write stock journal for product {}: {}", productId, e.getMessage());
+                }
+            }
+        }
+
+        void openSegment(Path dir, long sequence) {
+            closeSegment();
+            try {
+                segment = dir.resolve("sku-" + productId + "-" + System.currentTimeMillis() + "-" + sequence + ".journal");
+                segmentSequence = sequence;
+                writer = Files.newBufferedWriter(segment, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                dirty = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open stock journal for product " + productId, e);
+            }
+        }
+
+        void closeSegment() {
+            synchronized (syncMonitor) {
+                if (writer != null) {
+                    try {
+                        // Flushes whatever is still buffered, so every line so far counts as synced
+                        writer.close();
+                        synced = journaled;
+                    } catch (IOException e) {
+                        logger.warn("⚠️ Could not close journal segment {}: {}", segment, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.ecommerce_backend.service;
+
+/**
+ * Raised when an Idempotency-Key cannot be honored for this request
+ */
+public class IdempotencyException extends RuntimeException {
+
+    private final Reason reason;
+
+    public IdempotencyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public enum Reason {
+        // Another request with the same key is still running (on another node or too long)
+        IN_PROGRESS,
+        // The key was already used for a request with a different body
+        KEY_REUSED
+    }
+}
@@ -0,0 +1,337 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.OrderDTO;
+import com.ecommerce.ecommerce_backend.entity.IdempotencyRecord;
+import com.ecommerce.ecommerce_backend.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs order creation at most once per Idempotency-Key.
+ *
+ * Completed results are replayed from a small in-process LRU, falling back to
+ * the idempotency_keys table (shared by all nodes). A duplicate that arrives
+ * while the first request is still running on this node joins its result;
+ * one that arrives while it runs on another node waits for the row to complete.
+ *
+ * A claim carries a lease that the owning node renews while the request runs.
+ * If the owner dies, the lease lapses and the next retry takes the key over
+ * with a conditional UPDATE instead of getting 409 until the row is purged.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.retention:PT24H}")
+    private Duration retention;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // Must comfortably exceed the renew interval, or a slow but live owner loses its key
+    @Value("${idempotency.lease:PT2M}")
+    private Duration lease;
+
+    // Owner tokens of the claims this node is currently running (renewed by renewLeases)
+    private final Set<String> runningOwners = ConcurrentHashMap.newKeySet();
+
+    // Requests currently executing on this node, keyed by scoped idempotency key
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    // Recently completed responses (access-ordered LRU)
+    private final Map<String, CachedResult> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * Execute the action once for this caller and key; later calls get the first result.
+     */
+    public OrderDTO execute(String username, String idempotencyKey, Object request, Supplier<OrderDTO> action) {
+        String key = username + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        CachedResult cached = cached(key);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<OrderDTO> mine = new CompletableFuture<>();
+        InFlight mineInFlight = new InFlight(requestHash, mine);
+        InFlight running = inFlight.putIfAbsent(key, mineInFlight);
+        if (running != null) {
+            // Same check as a replay: a different body under the same key must not get this order
+            if (!running.requestHash.equals(requestHash)) {
+                throw new IdempotencyException(IdempotencyException.Reason.KEY_REUSED,
+                        "Idempotency-Key was already used for a different request");
+            }
+            logger.info("🔁 Joining in-flight request for idempotency key {}", idempotencyKey);
+            return join(running.result);
+        }
+
+        String owner = UUID.randomUUID().toString();
+        try {
+            Optional<OrderDTO> stored = claimOrReplay(key, requestHash, owner);
+            if (stored.isPresent()) {
+                mine.complete(stored.get());
+                return stored.get();
+            }
+
+            runningOwners.add(owner);
+            OrderDTO result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                // Failed requests are not remembered, so the client may retry with the same key
+                transactionTemplate.executeWithoutResult(status ->
+                        idempotencyRecordRepository.deleteByIdempotencyKeyAndOwner(key, owner));
+                throw e;
+            }
+
+            complete(key, requestHash, owner, result);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            runningOwners.remove(owner);
+            inFlight.remove(key, mineInFlight);
+        }
+    }
+
+    /**
+     * Insert the IN_PROGRESS row, or, if the key is already known, wait for and return its result.
+     * An empty result means this execution owns the key and must run the request.
+     */
+    private Optional<OrderDTO> claimOrReplay(String key, String requestHash, String owner) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, requestHash, owner,
+                            LocalDateTime.now().plus(lease))));
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // Someone (probably another node) owns the key
+        }
+
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            IdempotencyRecord record = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.findByIdempotencyKey(key).orElse(null));
+
+            if (record == null) {
+                // The owner failed and removed its claim; take over
+                return claimOrReplay(key, requestHash, owner);
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyException(IdempotencyException.Reason.KEY_REUSED,
+                        "Idempotency-Key was already used for a different request");
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                CachedResult result = new CachedResult(requestHash, deserialize(record.getResponseBody()));
+                remember(key, result);
+                return Optional.of(result.order);
+            }
+            if (takeOverExpired(key, owner)) {
+                logger.warn("⚠️ Took over idempotency key {} after its owner's lease expired", key);
+                return Optional.empty();
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyException(IdempotencyException.Reason.IN_PROGRESS,
+                        "A request with this Idempotency-Key is still being processed");
+            }
+            sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private boolean takeOverExpired(String key, String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOverExpired(
+                key, owner, now.plus(lease), now, now.minus(lease), IdempotencyRecord.Status.IN_PROGRESS));
+        return claimed != null && claimed == 1;
+    }
+
+    /**
+     * Heartbeat: push out the leases of every request this node is still running
+     */
+    @Scheduled(fixedDelayString = "${idempotency.lease-renew-interval-ms:30000}")
+    public void renewLeases() {
+        if (runningOwners.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.renewLeases(
+                    new ArrayList<>(runningOwners), LocalDateTime.now().plus(lease), IdempotencyRecord.Status.IN_PROGRESS));
+        } catch (Exception e) {
+            logger.error("❌ Could not renew idempotency leases: {}", e.getMessage());
+        }
+    }
+
+    private void complete(String key, String requestHash, String owner, OrderDTO result) {
+        String body = serialize(result);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                IdempotencyRecord record = idempotencyRecordRepository.findByIdempotencyKey(key)
+                        .orElseGet(() -> new IdempotencyRecord(key, requestHash));
+                if (record.getOwnerToken() != null && !owner.equals(record.getOwnerToken())) {
+                    // This node stalled past its lease and another one took over; both ran the request
+                    logger.warn("⚠️ Idempotency key {} was taken over while this request was running", key);
+                }
+                record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                record.setOrderId(result.getId());
+                record.setResponseBody(body);
+                idempotencyRecordRepository.save(record);
+            });
+        } catch (Exception e) {
+            // The order exists; only cross-node replay is lost, this node still has it cached
+            logger.error("❌ Could not store idempotent response for key {}: {}", key, e.getMessage());
+        }
+        remember(key, new CachedResult(requestHash, result));
+    }
+
+    private OrderDTO join(CompletableFuture<OrderDTO> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyException(IdempotencyException.Reason.IN_PROGRESS,
+                    "A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private OrderDTO replay(CachedResult cached, String requestHash) {
+        if (!cached.requestHash.equals(requestHash)) {
+            throw new IdempotencyException(IdempotencyException.Reason.KEY_REUSED,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return cached.order;
+    }
+
+    private CachedResult cached(String key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    private void remember(String key, CachedResult result) {
+        synchronized (recent) {
+            recent.put(key, result);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+            logger.info("🧹 Purged {} expired idempotency keys", purged);
+        } catch (Exception e) {
+            logger.error("❌ Idempotency key purge failed: {}", e.getMessage());
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String serialize(OrderDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order response", e);
+        }
+    }
+
+    private OrderDTO deserialize(String body) {
+        try {
+            return objectMapper.readValue(body.getBytes(StandardCharsets.UTF_8), OrderDTO.class);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Could not read stored order response", e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private static final class InFlight {
+        final String requestHash;
+        final CompletableFuture<OrderDTO> result;
+
+        InFlight(String requestHash, CompletableFuture<OrderDTO> result) {
+            this.requestHash = requestHash;
+            this.result = result;
+        }
+    }
+
+    private static final class CachedResult {
+        final String requestHash;
+        final OrderDTO order;
+
+        CachedResult(String requestHash, OrderDTO order) {
+            this.requestHash = requestHash;
+            this.order = order;
+        }
+    }
+}
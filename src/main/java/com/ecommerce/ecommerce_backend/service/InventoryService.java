@@ -1,70 +1,149 @@
 package com.ecommerce.ecommerce_backend.service;
 
-import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.entity.OutboxEvent;
+import com.ecommerce.ecommerce_backend.entity.StockReservation;
+import com.ecommerce.ecommerce_backend.entity.StockReservation.ReservationStatus;
 import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductStockView;
+import com.ecommerce.ecommerce_backend.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InventoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String RESERVE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND active = TRUE AND stock_quantity >= ?";
+
+    private static final String RELEASE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private HotStockLedger hotStockLedger;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // How long a checkout may hold stock before the sweeper gives it back
+    @Value("${inventory.reservation.ttl:PT15M}")
+    private Duration reservationTtl;
+
     /**
-     * Reserve inventory for multiple products atomically
-     * Returns true if all reservations successful, false otherwise
+     * Reserve inventory for multiple products atomically.
+     * Each SKU is decremented with a single guarded UPDATE and all of them are
+     * sent to the database as one JDBC batch. A row only matches when the product
+     * is active and still has enough stock, so the rows-affected count decides
+     * success and concurrent checkouts can never push stock below zero.
+     * SKUs flagged as hot are reserved in the in-memory HotStockLedger instead.
+     * Returns true if all reservations successful, false otherwise (in which case
+     * the surrounding transaction is marked rollback-only).
      */
     @Transactional
     public boolean reserveInventory(Map<Long, Integer> productQuantities) {
-        System.out.println("🔒 Attempting to reserve inventory...");
-        
-        // First, check if all products have sufficient stock
-        for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
-            Long productId = entry.getKey();
-            Integer requestedQuantity = entry.getValue();
-            
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
-            
-            System.out.println("📦 Product: " + product.getName() + 
-                             " | Available: " + product.getStockQuantity() + 
-                             " | Requested: " + requestedQuantity);
-            
-            if (!product.getActive()) {
-                System.out.println("❌ Product " + product.getName() + " is not active");
+        logger.debug("🔒 Reserving inventory for {} products", productQuantities.size());
+
+        Map<Long, Integer> hot = new TreeMap<>();
+        Map<Long, Integer> cold = new TreeMap<>();
+        splitByHeat(productQuantities, hot, cold);
+
+        if (!hot.isEmpty()) {
+            if (!hotStockLedger.tryReserve(hot)) {
+                logger.info("❌ Insufficient stock for hot products {}", hot.keySet());
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
                 return false;
             }
-            
-            if (product.getStockQuantity() < requestedQuantity) {
-                System.out.println("❌ Insufficient stock for " + product.getName() + 
-                                 " (Available: " + product.getStockQuantity() + 
-                                 ", Requested: " + requestedQuantity + ")");
-                return false; // Insufficient stock
+            // The ledger is not part of the transaction: the hold is only journaled once the order
+            // has committed, and handed back if it does not, so a crash in between loses nothing
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        hotStockLedger.commit(hot);
+                    } else {
+                        hotStockLedger.cancel(hot);
+                    }
+                }
+            });
+        }
+
+        if (cold.isEmpty()) {
+            publishStockEvents(OutboxEvent.STOCK_RESERVED, productQuantities);
+            return true;
+        }
+
+        // Sorted by product id so concurrent checkouts lock rows in the same order (no deadlocks)
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(cold.entrySet());
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(RESERVE_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> entry = entries.get(i);
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+                ps.setInt(3, entry.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] != 1) {
+                Map.Entry<Long, Integer> entry = entries.get(i);
+                logger.info("❌ Insufficient stock or inactive product {} (requested {})",
+                        entry.getKey(), entry.getValue());
+                // Undo the rows of this batch that did succeed
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return false;
             }
         }
-        
-        // If all checks pass, reserve the inventory
-        System.out.println("✅ All stock checks passed, reserving inventory...");
-        for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
-            Long productId = entry.getKey();
-            Integer requestedQuantity = entry.getValue();
-            
-            Product product = productRepository.findById(productId).get();
-            int newStock = product.getStockQuantity() - requestedQuantity;
-            product.setStockQuantity(newStock);
-            productRepository.save(product);
-            
-            System.out.println("📦 Reserved " + requestedQuantity + " units of " + 
-                             product.getName() + " (New stock: " + newStock + ")");
-        }
-        
-        System.out.println("🎉 Inventory reservation completed successfully!");
+
+        publishStockEvents(OutboxEvent.STOCK_RESERVED, productQuantities);
+        logger.debug("🎉 Inventory reserved ({} products)", entries.size());
         return true;
     }
 
@@ -73,39 +152,194 @@ public class InventoryService {
      */
     @Transactional
     public void releaseInventory(Map<Long, Integer> productQuantities) {
-        System.out.println("🔄 Releasing inventory for cancelled order...");
-        
+        logger.debug("🔄 Releasing inventory for {} products", productQuantities.size());
+
+        Map<Long, Integer> hot = new TreeMap<>();
+        Map<Long, Integer> cold = new TreeMap<>();
+        splitByHeat(productQuantities, hot, cold);
+
+        if (!hot.isEmpty()) {
+            // Only hand the units back once the release is committed
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        hotStockLedger.release(hot);
+                    }
+                });
+            } else {
+                hotStockLedger.release(hot);
+            }
+        }
+
+        publishStockEvents(OutboxEvent.STOCK_RELEASED, productQuantities);
+
+        if (cold.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(cold.entrySet());
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(RELEASE_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> entry = entries.get(i);
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                throw new RuntimeException("Product not found: " + entries.get(i).getKey());
+            }
+        }
+
+        logger.debug("✅ Inventory released ({} products)", entries.size());
+    }
+
+    // One outbox event per product, committed with the stock change itself; local caches hear about it after commit
+    private void publishStockEvents(String eventType, Map<Long, Integer> productQuantities) {
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productQuantities.keySet()));
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(productQuantities).entrySet()) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("productId", entry.getKey());
+            payload.put("quantity", entry.getValue());
+            outboxService.publish(OutboxEvent.PRODUCT, entry.getKey(), eventType, payload);
+        }
+    }
+
+    // Hot SKUs are served by the in-memory ledger, everything else goes straight to MySQL
+    private void splitByHeat(Map<Long, Integer> productQuantities, Map<Long, Integer> hot, Map<Long, Integer> cold) {
         for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
-            Long productId = entry.getKey();
-            Integer quantity = entry.getValue();
-            
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
-            
-            int newStock = product.getStockQuantity() + quantity;
-            product.setStockQuantity(newStock);
-            productRepository.save(product);
-            
-            System.out.println("📦 Released " + quantity + " units of " + 
-                             product.getName() + " (New stock: " + newStock + ")");
-        }
-        
-        System.out.println("✅ Inventory release completed!");
+            if (hotStockLedger.isHot(entry.getKey())) {
+                hot.put(entry.getKey(), entry.getValue());
+            } else {
+                cold.put(entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     /**
-     * Check if products are available without reserving
+     * Reserve inventory and record it as a time-bounded hold.
+     * The stock is decremented immediately, but stays tied to the returned
+     * reservation key until it is confirmed. Holds that are neither confirmed
+     * nor released before the TTL runs out are given back by the sweeper.
+     * Returns the reservation key, or empty if any product is short on stock.
+     */
+    @Transactional
+    public Optional<String> holdInventory(Map<Long, Integer> productQuantities) {
+        if (!reserveInventory(productQuantities)) {
+            return Optional.empty();
+        }
+
+        String reservationKey = UUID.randomUUID().toString();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(reservationTtl);
+
+        List<StockReservation> holds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
+            holds.add(new StockReservation(reservationKey, entry.getKey(), entry.getValue(), expiresAt));
+        }
+        stockReservationRepository.saveAll(holds);
+
+        logger.debug("⏳ Inventory held under reservation {} until {}", reservationKey, expiresAt);
+        return Optional.of(reservationKey);
+    }
+
+    /**
+     * Turn a hold into a permanent decrement.
+     * Returns false if the hold no longer exists (already expired or released).
+     */
+    @Transactional
+    public boolean confirmReservation(String reservationKey) {
+        List<StockReservation> holds = stockReservationRepository
+                .findByKeyAndStatusForUpdate(reservationKey, ReservationStatus.ACTIVE);
+        if (holds.isEmpty()) {
+            logger.warn("⚠️ Reservation {} is no longer active", reservationKey);
+            return false;
+        }
+
+        stockReservationRepository.updateStatusByIdIn(ids(holds), ReservationStatus.CONFIRMED, LocalDateTime.now());
+        logger.debug("✅ Reservation {} confirmed", reservationKey);
+        return true;
+    }
+
+    /**
+     * Give the stock of a hold back (payment failed or checkout abandoned).
+     * Safe to call more than once; holds that are no longer active are ignored.
+     */
+    @Transactional
+    public void releaseReservation(String reservationKey) {
+        List<StockReservation> holds = stockReservationRepository
+                .findByKeyAndStatusForUpdate(reservationKey, ReservationStatus.ACTIVE);
+        if (holds.isEmpty()) {
+            return;
+        }
+
+        stockReservationRepository.updateStatusByIdIn(ids(holds), ReservationStatus.RELEASED, LocalDateTime.now());
+        releaseInventory(quantitiesByProduct(holds));
+        logger.debug("🔄 Reservation {} released", reservationKey);
+    }
+
+    /**
+     * Expire one batch of stale holds and return their stock.
+     * Returns the number of holds expired so the sweeper knows whether to continue.
+     */
+    @Transactional
+    public int expireStaleReservations(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> expired = stockReservationRepository
+                .findExpiredForUpdate(ReservationStatus.ACTIVE, now, PageRequest.of(0, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        stockReservationRepository.updateStatusByIdIn(ids(expired), ReservationStatus.EXPIRED, now);
+        releaseInventory(quantitiesByProduct(expired));
+
+        logger.info("⌛ Expired {} stale stock reservations", expired.size());
+        return expired.size();
+    }
+
+    /**
+     * Delete confirmed/released/expired holds older than the cutoff
+     */
+    @Transactional
+    public int purgeFinishedReservations(LocalDateTime cutoff) {
+        return stockReservationRepository.deleteFinishedBefore(ReservationStatus.ACTIVE, cutoff);
+    }
+
+    private List<Long> ids(List<StockReservation> holds) {
+        return holds.stream().map(StockReservation::getId).collect(Collectors.toList());
+    }
+
+    private Map<Long, Integer> quantitiesByProduct(List<StockReservation> holds) {
+        return holds.stream().collect(Collectors.toMap(
+                StockReservation::getProductId,
+                StockReservation::getQuantity,
+                Integer::sum
+        ));
+    }
+
+    /**
+     * Check if products are available without reserving.
+     * All products are loaded with one query that only reads (id, active, stock_quantity).
      */
     public boolean checkAvailability(Map<Long, Integer> productQuantities) {
+        if (productQuantities.isEmpty()) {
+            return true;
+        }
+
+        Map<Long, ProductStockView> stock = loadStock(productQuantities.keySet());
         for (Map.Entry<Long, Integer> entry : productQuantities.entrySet()) {
-            Long productId = entry.getKey();
-            Integer requestedQuantity = entry.getValue();
-            
-            Product product = productRepository.findById(productId)
-                    .orElse(null);
-            
-            if (product == null || !product.getActive() || 
-                product.getStockQuantity() < requestedQuantity) {
+            ProductStockView product = stock.get(entry.getKey());
+            if (product == null || !product.getActive() ||
+                product.getStockQuantity() < entry.getValue()) {
                 return false;
             }
         }
@@ -113,28 +347,56 @@ public class InventoryService {
     }
 
     /**
-     * Get current stock levels for multiple products
+     * Get current stock levels for multiple products (0 for unknown products)
      */
     public Map<Long, Integer> getStockLevels(List<Long> productIds) {
-        Map<Long, Integer> stockLevels = new HashMap<>();
-        
+        Map<Long, ProductStockView> stock = loadStock(productIds);
+        Map<Long, Integer> stockLevels = new LinkedHashMap<>();
+
         for (Long productId : productIds) {
-            Product product = productRepository.findById(productId).orElse(null);
-            if (product != null) {
-                stockLevels.put(productId, product.getStockQuantity());
-            } else {
-                stockLevels.put(productId, 0);
-            }
+            ProductStockView product = stock.get(productId);
+            stockLevels.put(productId, product != null ? product.getStockQuantity() : 0);
         }
-        
+
         return stockLevels;
     }
 
+    /**
+     * Get stock and active flag for multiple products in one query, keyed by product id.
+     * Unknown ids are simply absent from the result.
+     */
+    public Map<Long, ProductStockView> loadStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return productRepository.findStockByIdIn(productIds).stream()
+                .map(this::withLedgerStock)
+                .collect(Collectors.toMap(ProductStockView::getId, Function.identity()));
+    }
+
+    // The database lags behind the ledger between flushes, so hot SKUs report the ledger's count
+    private ProductStockView withLedgerStock(ProductStockView product) {
+        if (!hotStockLedger.isHot(product.getId())) {
+            return product;
+        }
+        int available = hotStockLedger.getAvailable(product.getId());
+        return new ProductStockView() {
+            @Override
+            public Long getId() { return product.getId(); }
+
+            @Override
+            public Boolean getActive() { return product.getActive(); }
+
+            @Override
+            public Integer getStockQuantity() { return available; }
+        };
+    }
+
     /**
      * Check if a single product has sufficient stock
      */
     public boolean hasStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId).orElse(null);
+        ProductStockView product = loadStock(List.of(productId)).get(productId);
         return product != null && product.getActive() && product.getStockQuantity() >= quantity;
     }
-}
\ No newline at end of file
+}
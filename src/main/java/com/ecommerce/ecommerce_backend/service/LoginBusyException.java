@@ -0,0 +1,11 @@
+package com.ecommerce.ecommerce_backend.service;
+
+/**
+ * Raised when the password hashing queue is full; the client should retry later
+ */
+public class LoginBusyException extends RuntimeException {
+
+    public LoginBusyException(String message) {
+        super(message);
+    }
+}
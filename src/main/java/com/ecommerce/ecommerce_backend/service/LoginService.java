@@ -0,0 +1,151 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.AuthResponseDTO;
+import com.ecommerce.ecommerce_backend.dto.DTOMapper;
+import com.ecommerce.ecommerce_backend.entity.User;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.security.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Username/password login: one user query and one BCrypt verification.
+ *
+ * BCrypt runs on its own small, bounded pool so a burst of logins queues up
+ * there (and is refused once the queue is full) instead of occupying the
+ * request threads that serve everything else. Hashes below the configured
+ * cost are re-encoded in the background after a successful login.
+ */
+@Service
+public class LoginService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 0 = half the available processors
+    @Value("${security.login.hash-workers:0}")
+    private int hashWorkers;
+
+    @Value("${security.login.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    // Verified against when the user does not exist, so unknown usernames take as long as wrong passwords
+    private String dummyHash;
+
+    @PostConstruct
+    void start() {
+        int workers = hashWorkers > 0 ? hashWorkers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dummyHash = passwordEncoder.encode("not-a-real-password");
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Completes with the token and user, or exceptionally with BadCredentialsException,
+     * DisabledException or LoginBusyException.
+     */
+    public CompletableFuture<AuthResponseDTO> login(String username, String rawPassword) {
+        // Cart is fetched with the user so the response can be built off the request thread
+        Optional<User> found = userRepository.findWithCartByUsername(username);
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (logContext != null) {
+                    MDC.setContextMap(logContext);
+                }
+                try {
+                    return authenticate(found, rawPassword);
+                } finally {
+                    MDC.clear();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Login queue full, rejecting login for {}", username);
+            return CompletableFuture.failedFuture(new LoginBusyException("Too many logins in progress, please retry shortly"));
+        }
+    }
+
+    private AuthResponseDTO authenticate(Optional<User> found, String rawPassword) {
+        if (found.isEmpty()) {
+            passwordEncoder.matches(rawPassword, dummyHash);
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        User user = found.get();
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (!user.isEnabled()) {
+            throw new DisabledException("User account is disabled");
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            upgradeHash(user.getId(), user.getUsername(), rawPassword);
+        }
+
+        String jwt = jwtUtil.generateToken(user);
+        logger.info("🎉 Login successful for {}", user.getUsername());
+        return new AuthResponseDTO(jwt, DTOMapper.toUserResponseDTO(user));
+    }
+
+    // Runs after the response; if the pool is saturated it simply happens on a later login
+    private void upgradeHash(Long userId, String username, String rawPassword) {
+        try {
+            executor.execute(() -> {
+                try {
+                    String upgraded = passwordEncoder.encode(rawPassword);
+                    transactionTemplate.executeWithoutResult(status -> userRepository.updatePassword(userId, upgraded));
+                    logger.info("🔐 Upgraded password hash of {}", username);
+                } catch (Exception e) {
+                    logger.warn("⚠️ Could not upgrade password hash of {}: {}", username, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Try again next time
+        }
+    }
+}
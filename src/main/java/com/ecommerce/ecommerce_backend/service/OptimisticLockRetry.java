@@ -0,0 +1,77 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry with full jitter for mutations that can lose an optimistic
+ * lock race (@Version on Product and ShoppingCart).
+ *
+ * Only retries when called outside a transaction: inside one, the conflict
+ * surfaces at commit and the caller's transaction is already doomed, so the
+ * exception is passed straight through.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${concurrency.optimistic-retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${concurrency.optimistic-retry.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${concurrency.optimistic-retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("optimistic_lock.conflicts", "operation", operation).increment();
+
+                if (attempt >= maxAttempts || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    meterRegistry.counter("optimistic_lock.exhausted", "operation", operation).increment();
+                    throw e;
+                }
+
+                meterRegistry.counter("optimistic_lock.retries", "operation", operation).increment();
+                logger.warn("⚠️ Optimistic lock conflict on {} (attempt {}/{}), retrying",
+                        operation, attempt, maxAttempts);
+
+                // Drop stale entities (open-in-view keeps the request's persistence context alive)
+                entityManager.clear();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
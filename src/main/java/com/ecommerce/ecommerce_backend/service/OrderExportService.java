@@ -0,0 +1,154 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.Order;
+import com.ecommerce.ecommerce_backend.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams order headers straight from a forward-only cursor to the response.
+ *
+ * The persistence context is cleared every CLEAR_INTERVAL rows and output is
+ * flushed as it goes, so memory stays flat however many orders match.
+ * READ_COMMITTED keeps the scan to plain MVCC reads without gap locks.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private static final String CSV_HEADER =
+            "id,orderNumber,userId,username,status,totalAmount,paymentMethod,stripePaymentIntentId,createdAt,updatedAt";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    public long exportOrders(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<Order> orders = orderRepository.streamForExport(from, to)) {
+            Iterator<Order> it = orders.iterator();
+            if (format == Format.CSV) {
+                rows = writeCsv(it, out);
+            } else {
+                rows = writeNdjson(it, out);
+            }
+        }
+        logger.info("📤 Exported {} orders as {} ({} - {})", rows, format, from, to);
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<Order> orders, OutputStream out) throws IOException {
+        long rows = 0;
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(new SerializedString("\n"));
+
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            json.writeStartObject();
+            json.writeNumberField("id", order.getId());
+            json.writeStringField("orderNumber", order.getOrderNumber());
+            json.writeNumberField("userId", order.getUser().getId());
+            json.writeStringField("username", order.getUser().getUsername());
+            json.writeStringField("status", order.getStatus().name());
+            json.writeNumberField("totalAmount", order.getTotalAmount());
+            json.writeStringField("paymentMethod", order.getPaymentMethod());
+            json.writeStringField("stripePaymentIntentId", order.getStripePaymentIntentId());
+            json.writeStringField("createdAt", String.valueOf(order.getCreatedAt()));
+            json.writeStringField("updatedAt", String.valueOf(order.getUpdatedAt()));
+            json.writeEndObject();
+
+            if (++rows % CLEAR_INTERVAL == 0) {
+                json.flush();
+                entityManager.clear();
+            }
+        }
+        json.writeRaw('\n');
+        json.flush();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Order> orders, OutputStream out) throws IOException {
+        long rows = 0;
+        BufferedWriter csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write(CSV_HEADER);
+        csv.newLine();
+
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            csv.write(String.valueOf(order.getId()));
+            csv.write(',');
+            csv.write(csvField(order.getOrderNumber()));
+            csv.write(',');
+            csv.write(String.valueOf(order.getUser().getId()));
+            csv.write(',');
+            csv.write(csvField(order.getUser().getUsername()));
+            csv.write(',');
+            csv.write(order.getStatus().name());
+            csv.write(',');
+            csv.write(order.getTotalAmount().toPlainString());
+            csv.write(',');
+            csv.write(csvField(order.getPaymentMethod()));
+            csv.write(',');
+            csv.write(csvField(order.getStripePaymentIntentId()));
+            csv.write(',');
+            csv.write(csvField(order.getCreatedAt() != null ? order.getCreatedAt().toString() : null));
+            csv.write(',');
+            csv.write(csvField(order.getUpdatedAt() != null ? order.getUpdatedAt().toString() : null));
+            csv.newLine();
+
+            if (++rows % CLEAR_INTERVAL == 0) {
+                csv.flush();
+                entityManager.clear();
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Usernames are user input: a spreadsheet would run a leading =, +, - or @ as a formula
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.ecommerce_backend.service;
+
+/**
+ * Produces unique, human-readable order numbers (ORD-yyyyMMdd-...).
+ * Implementations must be safe to call from many threads at once.
+ */
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+}
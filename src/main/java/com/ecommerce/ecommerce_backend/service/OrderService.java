@@ -1,6 +1,9 @@
 package com.ecommerce.ecommerce_backend.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -9,14 +12,21 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ecommerce.ecommerce_backend.dto.AddressRequestDTO;
 import com.ecommerce.ecommerce_backend.dto.CreateOrderRequestDTO;
+import com.ecommerce.ecommerce_backend.dto.OrderCursor;
 import com.ecommerce.ecommerce_backend.dto.OrderDTO;
+import com.ecommerce.ecommerce_backend.dto.OrderPageDTO;
 import com.ecommerce.ecommerce_backend.entity.Order;
 import com.ecommerce.ecommerce_backend.entity.OrderItem;
+import com.ecommerce.ecommerce_backend.entity.OutboxEvent;
 import com.ecommerce.ecommerce_backend.entity.CartItem;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.entity.Address;
@@ -25,7 +35,6 @@ import com.ecommerce.ecommerce_backend.repository.OrderRepository;
 import com.ecommerce.ecommerce_backend.dto.DTOMapper;
 
 @Service
-@Transactional
 public class OrderService {
 
     @Autowired
@@ -46,180 +55,401 @@ public class OrderService {
     @Autowired
     private AddressService addressService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Serve order reads from order_summary instead of the orders entity graph
+    @Value("${orders.summary.reads-enabled:true}")
+    private boolean summaryReadsEnabled;
+
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    /**
+     * Checkout in three phases so no DB connection or row lock is held during the payment call:
+     * 1. short transaction: hold inventory and persist a PENDING order
+     * 2. no transaction: charge the customer through Stripe
+     * 3. short transaction: confirm the hold and the order (or compensate on failure)
+     * A crash between phases leaves a PENDING order that CheckoutRecoveryJob finishes or cancels.
+     */
     public OrderDTO createOrderFromCart(String userEmail, CreateOrderRequestDTO request) {
+        return finishCheckout(startCheckout(userEmail, request), request);
+    }
+
+    /**
+     * Phase 1 on its own: returns once the order exists as PENDING with its stock held.
+     * The caller must follow up with finishCheckout (or leave it to CheckoutRecoveryJob).
+     */
+    public CheckoutContext startCheckout(String userEmail, CreateOrderRequestDTO request) {
         logger.info("🛒 Creating order for user: {}", userEmail);
 
         try {
-            // Get user and cart
-            User user = userService.getUserByUsername(userEmail)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Get cart from user
-            ShoppingCart cart = user.getShoppingCart();
-            if (cart == null || cart.getCartItems().isEmpty()) {
-                throw new RuntimeException("Cannot create order: cart is empty");
-            }
+            return transactionTemplate.execute(status -> beginCheckout(userEmail, request));
+        } catch (Exception e) {
+            logger.error("❌ Order creation failed for user {}: {}", userEmail, e.getMessage());
+            throw new RuntimeException("Failed to create order: " + e.getMessage());
+        }
+    }
 
-            List<CartItem> cartItems = cart.getCartItems();
+    /**
+     * Phases 2 and 3 for an order created by startCheckout
+     */
+    public OrderDTO finishCheckout(CheckoutContext checkout, CreateOrderRequestDTO request) {
+        String paymentIntentId;
+        try {
+            paymentIntentId = processPayment(checkout, request);
+        } catch (Exception e) {
+            logger.error("❌ Order creation failed, releasing inventory: {}", e.getMessage());
+            cancelPendingOrder(checkout.getOrderId(), Order.OrderStatus.CANCELLED);
+            throw new RuntimeException("Failed to create order: " + e.getMessage());
+        }
 
-            // Calculate total
-            BigDecimal totalAmount = cartItems.stream()
-                    .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        OrderDTO order;
+        try {
+            order = transactionTemplate.execute(status -> completeCheckout(checkout.getOrderId(), paymentIntentId));
+        } catch (Exception e) {
+            logger.error("❌ Could not confirm paid order {}: {}", checkout.getOrderNumber(), e.getMessage());
+            compensatePaidCheckout(checkout.getOrderId(), paymentIntentId);
+            throw new RuntimeException("Failed to create order: " + e.getMessage());
+        }
 
-            logger.info("💰 Order total: ${}", totalAmount);
+        // After the confirm commit: a failure here must never undo a paid, confirmed order
+        try {
+            shoppingCartService.removeOrderedItems(checkout.getUser().getId(), checkout.getQuantities());
+            logger.info("🧹 Ordered items removed from cart of user: {}", checkout.getUser().getUsername());
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not clear cart after order {}: {}", checkout.getOrderNumber(), e.getMessage());
+        }
 
-            // Create inventory map for reservation
-            Map<Long, Integer> inventoryMap = cartItems.stream()
-                    .collect(Collectors.toMap(
-                            item -> item.getProduct().getId(),
-                            CartItem::getQuantity,
-                            Integer::sum
-                    ));
+        // Try to save addresses for future use (optional feature, outside the order transaction)
+        try {
+            saveAddressesFromOrder(checkout.getUser(), request);
+        } catch (Exception e) {
+            logger.warn("⚠️ Address saving failed but order was successful: {}", e.getMessage());
+        }
 
-            // Reserve inventory atomically
-            logger.info("🔒 Attempting to reserve inventory...");
-            if (!inventoryService.reserveInventory(inventoryMap)) {
-                throw new RuntimeException("Insufficient stock for one or more items in your cart");
-            }
+        return order;
+    }
 
-            try {
-                // Process payment using your StripePaymentService
-                logger.info("💳 Processing payment...");
-                
-                boolean paymentSuccessful = false;
-                String paymentIntentId = null;
-                
-                if ("STRIPE_CARD".equals(request.getPaymentMethod())) {
-                    try {
-                        com.stripe.model.PaymentIntent paymentIntent;
-                        
-                        if (request.getCardToken() != null) {
-                            if ("tok_visa".equals(request.getCardToken())) {
-                                // Use test payment method
-                                paymentIntent = stripePaymentService.processTestCardPayment(
-                                    totalAmount, "usd", user.getEmail());
-                            } else {
-                                // Use real card token
-                                paymentIntent = stripePaymentService.processCardPayment(
-                                    totalAmount, "usd", request.getCardToken(), user.getEmail());
-                            }
-                        } else if (request.getPaymentIntentId() != null) {
-                            // Confirm existing payment intent
-                            paymentIntent = stripePaymentService.confirmPaymentIntent(request.getPaymentIntentId());
-                        } else {
-                            throw new RuntimeException("No payment method provided");
-                        }
-                        
-                        paymentSuccessful = stripePaymentService.isPaymentSuccessful(paymentIntent);
-                        paymentIntentId = paymentIntent.getId();
-                        
-                        if (!paymentSuccessful) {
-                            throw new RuntimeException("Payment failed: " + paymentIntent.getStatus());
-                        }
-                        
-                        logger.info("✅ Payment successful! Payment Intent: {}", paymentIntentId);
-                        
-                    } catch (Exception e) {
-                        logger.error("❌ Payment processing failed: {}", e.getMessage());
-                        throw new RuntimeException("Payment failed: " + e.getMessage());
-                    }
+    /**
+     * Phase 1: validate the cart, hold the stock and persist the order as PENDING
+     */
+    private CheckoutContext beginCheckout(String userEmail, CreateOrderRequestDTO request) {
+        // Get user and cart
+        User user = userService.getUserByUsername(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Get cart from user
+        ShoppingCart cart = user.getShoppingCart();
+        if (cart == null || cart.getCartItems().isEmpty()) {
+            throw new RuntimeException("Cannot create order: cart is empty");
+        }
+
+        List<CartItem> cartItems = cart.getCartItems();
+
+        // Calculate total
+        BigDecimal totalAmount = cartItems.stream()
+                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        logger.info("💰 Order total: ${}", totalAmount);
+
+        // Create inventory map for reservation
+        Map<Long, Integer> inventoryMap = cartItems.stream()
+                .collect(Collectors.toMap(
+                        item -> item.getProduct().getId(),
+                        CartItem::getQuantity,
+                        Integer::sum
+                ));
+
+        // Hold inventory atomically; the hold expires on its own if this checkout never finishes
+        logger.info("🔒 Attempting to reserve inventory...");
+        String reservationKey = inventoryService.holdInventory(inventoryMap)
+                .orElseThrow(() -> new RuntimeException("Insufficient stock for one or more items in your cart"));
+
+        // Generate unique order number
+        String orderNumber = generateOrderNumber();
+        logger.info("📋 Generated order number: {}", orderNumber);
+
+        // Create the order
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(totalAmount);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setPaymentMethod(request.getPaymentMethod());
+        order.setOrderNumber(orderNumber);
+        order.setReservationKey(reservationKey);
+        // An existing intent is recorded up front so recovery can look it up after a crash
+        if (request.getPaymentIntentId() != null) {
+            order.setStripePaymentIntentId(request.getPaymentIntentId());
+        }
+
+        // Handle addresses - simplified version that works with your current service
+        order.setShippingAddress(getShippingAddress(user, request));
+        order.setBillingAddress(getBillingAddress(user, request));
+
+        // Create order items
+        for (CartItem cartItem : cartItems) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(cartItem.getProduct());
+            orderItem.setQuantity(cartItem.getQuantity());
+            orderItem.setUnitPrice(cartItem.getProduct().getPrice());
+            order.getOrderItems().add(orderItem);
+        }
+
+        Order savedOrder = orderRepository.save(order);
+        orderChanged(savedOrder, OutboxEvent.ORDER_CREATED);
+        logger.info("⏳ Order {} created as PENDING with ID: {}", savedOrder.getOrderNumber(), savedOrder.getId());
+
+        return new CheckoutContext(savedOrder.getId(), orderNumber, totalAmount, user, inventoryMap);
+    }
+
+    /**
+     * Phase 2: charge the customer. Runs without a transaction so no connection is held.
+     * Returns the Stripe payment intent id, or null for non-Stripe payment methods.
+     */
+    private String processPayment(CheckoutContext checkout, CreateOrderRequestDTO request) {
+        logger.info("💳 Processing payment...");
+
+        if (!"STRIPE_CARD".equals(request.getPaymentMethod())) {
+            // For other payment methods, mark as successful for testing
+            logger.info("✅ Non-Stripe payment method accepted");
+            return null;
+        }
+
+        try {
+            com.stripe.model.PaymentIntent paymentIntent;
+            String customerEmail = checkout.getUser().getEmail();
+
+            if (request.getCardToken() != null) {
+                if ("tok_visa".equals(request.getCardToken())) {
+                    // Use test payment method
+                    paymentIntent = stripePaymentService.processTestCardPayment(
+                        checkout.getTotalAmount(), "usd", customerEmail, checkout.getOrderNumber());
                 } else {
-                    // For other payment methods, mark as successful for testing
-                    paymentSuccessful = true;
-                    logger.info("✅ Non-Stripe payment method accepted");
+                    // Use real card token
+                    paymentIntent = stripePaymentService.processCardPayment(
+                        checkout.getTotalAmount(), "usd", request.getCardToken(), customerEmail,
+                        checkout.getOrderNumber());
                 }
+            } else if (request.getPaymentIntentId() != null) {
+                // Confirm existing payment intent
+                paymentIntent = stripePaymentService.confirmPaymentIntent(request.getPaymentIntentId());
+            } else {
+                throw new RuntimeException("No payment method provided");
+            }
 
-                // Generate unique order number
-                String orderNumber = generateOrderNumber();
-                logger.info("📋 Generated order number: {}", orderNumber);
-
-                // Create the order
-                Order order = new Order();
-                order.setUser(user);
-                order.setTotalAmount(totalAmount);
-                order.setStatus(Order.OrderStatus.CONFIRMED);
-                order.setPaymentMethod(request.getPaymentMethod());
-                order.setOrderNumber(orderNumber); // ✅ FIXED: Set order number
-                if (paymentIntentId != null) {
-                    order.setStripePaymentIntentId(paymentIntentId);
-                }
+            if (!stripePaymentService.isPaymentSuccessful(paymentIntent)) {
+                throw new RuntimeException("Payment failed: " + paymentIntent.getStatus());
+            }
+
+            logger.info("✅ Payment successful! Payment Intent: {}", paymentIntent.getId());
+            return paymentIntent.getId();
+
+        } catch (Exception e) {
+            logger.error("❌ Payment processing failed: {}", e.getMessage());
+            throw new RuntimeException("Payment failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Phase 3: make the hold permanent and confirm the order (the cart is cleared after commit)
+     */
+    private OrderDTO completeCheckout(Long orderId, String paymentIntentId) {
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        confirmOrder(order, paymentIntentId);
 
-                // Handle addresses - simplified version that works with your current service
-                String finalShippingAddress = getShippingAddress(user, request);
-                String finalBillingAddress = getBillingAddress(user, request);
-                
-                order.setShippingAddress(finalShippingAddress);
-                order.setBillingAddress(finalBillingAddress);
-
-                // Save the order first
-                final Order savedOrder = orderRepository.save(order);
-                logger.info("✅ Order created with ID: {} and Order Number: {}", savedOrder.getId(), savedOrder.getOrderNumber());
-
-                // Create order items
-                List<OrderItem> orderItems = cartItems.stream().map(cartItem -> {
-                    OrderItem orderItem = new OrderItem();
-                    orderItem.setOrder(savedOrder);
-                    orderItem.setProduct(cartItem.getProduct());
-                    orderItem.setQuantity(cartItem.getQuantity());
-                    orderItem.setUnitPrice(cartItem.getProduct().getPrice());
-                    return orderItem;
-                }).collect(Collectors.toList());
-
-                savedOrder.setOrderItems(orderItems);
-                orderRepository.save(savedOrder);
-
-                // Try to save addresses for future use (optional feature)
-                try {
-                    saveAddressesFromOrder(user, request);
-                } catch (Exception e) {
-                    logger.warn("⚠️ Address saving failed but order was successful: {}", e.getMessage());
+        return DTOMapper.toOrderDTO(order);
+    }
+
+    private void confirmOrder(Order order, String paymentIntentId) {
+        if (order.getStatus() != Order.OrderStatus.PENDING) {
+            throw new RuntimeException("Order " + order.getOrderNumber() + " is no longer pending");
+        }
+
+        // Make the held stock permanent; if the hold already expired, try to take the stock again
+        if (!inventoryService.confirmReservation(order.getReservationKey())
+                && !inventoryService.reserveInventory(quantitiesOf(order))) {
+            throw new RuntimeException("Items sold out while the payment was processing");
+        }
+
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        if (paymentIntentId != null) {
+            order.setStripePaymentIntentId(paymentIntentId);
+        }
+        orderRepository.save(order);
+        orderChanged(order, OutboxEvent.ORDER_STATUS_CHANGED);
+        logger.info("✅ Order {} confirmed", order.getOrderNumber());
+    }
+
+    /**
+     * Compensation: release the hold of a PENDING order and close it with the given status
+     */
+    private void cancelPendingOrder(Long orderId, Order.OrderStatus finalStatus) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+                if (order == null || order.getStatus() != Order.OrderStatus.PENDING) {
+                    return;
                 }
+                inventoryService.releaseReservation(order.getReservationKey());
+                order.setStatus(finalStatus);
+                orderRepository.save(order);
+                orderChanged(order, OutboxEvent.ORDER_STATUS_CHANGED);
+                logger.info("↩️ Order {} closed as {}", order.getOrderNumber(), finalStatus);
+            });
+        } catch (Exception e) {
+            // Left PENDING; the recovery job will retry and the hold expires on its own
+            logger.error("❌ Could not cancel order {}: {}", orderId, e.getMessage());
+        }
+    }
 
-                // Clear the cart using your existing method
-                shoppingCartService.clearCart(user.getId());
-                logger.info("🧹 Cart cleared for user: {}", userEmail);
+    /**
+     * Compensation after the customer was charged but the order could not be confirmed
+     */
+    private void compensatePaidCheckout(Long orderId, String paymentIntentId) {
+        if (paymentIntentId != null) {
+            try {
+                stripePaymentService.refundPayment(paymentIntentId);
+                logger.info("💸 Refunded payment {}", paymentIntentId);
+            } catch (Exception e) {
+                // Keep the order PENDING so the recovery job sees the payment and retries
+                logger.error("❌ Refund of {} failed, leaving order for recovery: {}", paymentIntentId, e.getMessage());
+                return;
+            }
+            cancelPendingOrder(orderId, Order.OrderStatus.REFUNDED);
+        } else {
+            cancelPendingOrder(orderId, Order.OrderStatus.CANCELLED);
+        }
+    }
+
+    /**
+     * PENDING orders older than the cutoff, i.e. checkouts that never reached phase 3
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findStalledCheckouts(LocalDateTime cutoff, int limit) {
+        return orderRepository.findIdsByStatusAndCreatedAtBefore(
+                Order.OrderStatus.PENDING, cutoff, PageRequest.of(0, limit));
+    }
 
-                return DTOMapper.toOrderDTO(savedOrder);
+    /**
+     * Finish or cancel a checkout that was interrupted between phases.
+     * If Stripe has a successful payment for the order it is confirmed (or refunded
+     * when the stock is gone); otherwise the order is cancelled and its hold released.
+     */
+    public void recoverCheckout(Long orderId) {
+        Order order = transactionTemplate.execute(status -> orderRepository.findById(orderId).orElse(null));
+        if (order == null || order.getStatus() != Order.OrderStatus.PENDING) {
+            return;
+        }
 
+        String paymentIntentId = null;
+        if ("STRIPE_CARD".equals(order.getPaymentMethod())) {
+            try {
+                paymentIntentId = stripePaymentService
+                        .findPaymentForOrder(order.getOrderNumber(), order.getStripePaymentIntentId())
+                        .filter(stripePaymentService::isPaymentSuccessful)
+                        .map(com.stripe.model.PaymentIntent::getId)
+                        .orElse(null);
             } catch (Exception e) {
-                // Release inventory if payment or order creation fails
-                logger.error("❌ Order creation failed, releasing inventory: {}", e.getMessage());
-                inventoryService.releaseInventory(inventoryMap);
-                throw e;
+                // Cannot tell whether the customer paid; try again on the next run
+                logger.warn("⚠️ Could not look up payment for order {}: {}", order.getOrderNumber(), e.getMessage());
+                return;
             }
+        }
+
+        if (paymentIntentId == null) {
+            logger.info("🩹 Recovering order {}: no successful payment, cancelling", order.getOrderNumber());
+            cancelPendingOrder(orderId, Order.OrderStatus.CANCELLED);
+            return;
+        }
 
+        final String paidIntentId = paymentIntentId;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Order locked = orderRepository.findByIdForUpdate(orderId)
+                        .orElseThrow(() -> new RuntimeException("Order not found"));
+                if (locked.getStatus() == Order.OrderStatus.PENDING) {
+                    confirmOrder(locked, paidIntentId);
+                }
+            });
+            logger.info("🩹 Recovered order {}: payment {} found, confirmed", order.getOrderNumber(), paidIntentId);
         } catch (Exception e) {
-            logger.error("❌ Order creation failed for user {}: {}", userEmail, e.getMessage());
-            throw new RuntimeException("Failed to create order: " + e.getMessage());
+            logger.error("❌ Recovered order {} could not be confirmed: {}", order.getOrderNumber(), e.getMessage());
+            compensatePaidCheckout(orderId, paidIntentId);
         }
     }
 
+    /**
+     * Keep the read model and the outbox in step with an order change.
+     * Runs in the caller's transaction, so both commit or roll back with the order.
+     */
+    private void orderChanged(Order order, String eventType) {
+        orderSummaryService.record(order);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus().name());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("paymentMethod", order.getPaymentMethod());
+        outboxService.publish(OutboxEvent.ORDER, order.getId(), eventType, payload);
+    }
+
+    private Map<Long, Integer> quantitiesOf(Order order) {
+        return order.getOrderItems().stream()
+                .collect(Collectors.toMap(
+                        item -> item.getProduct().getId(),
+                        OrderItem::getQuantity,
+                        Integer::sum
+                ));
+    }
+
+    /**
+     * What phase 1 hands to the later phases (no managed entities cross a phase boundary except the user)
+     */
+    public static class CheckoutContext {
+        private final Long orderId;
+        private final String orderNumber;
+        private final BigDecimal totalAmount;
+        private final User user;
+        // Product id -> quantity taken from the cart into the order
+        private final Map<Long, Integer> quantities;
+
+        public CheckoutContext(Long orderId, String orderNumber, BigDecimal totalAmount, User user,
+                               Map<Long, Integer> quantities) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.totalAmount = totalAmount;
+            this.user = user;
+            this.quantities = Map.copyOf(quantities);
+        }
+
+        public Long getOrderId() { return orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public User getUser() { return user; }
+        public Map<Long, Integer> getQuantities() { return quantities; }
+    }
+
     /**
      * Generate unique order number
      */
     private String generateOrderNumber() {
-        // Generate order number in format: ORD-YYYYMMDD-XXXXXX
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-        String datePart = now.format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-        
-        // Generate random 6-digit number
-        int randomPart = (int) (Math.random() * 900000) + 100000;
-        
-        String orderNumber = "ORD-" + datePart + "-" + randomPart;
-        
-        // Check if order number already exists, regenerate if it does
-        int attempts = 0;
-        while (attempts < 10 && orderRepository.existsByOrderNumber(orderNumber)) {
-            randomPart = (int) (Math.random() * 900000) + 100000;
-            orderNumber = "ORD-" + datePart + "-" + randomPart;
-            attempts++;
-        }
-        
-        logger.info("📋 Generated order number: {}", orderNumber);
-        return orderNumber;
+        // Format: ORD-YYYYMMDD-<base36 id>, unique without a database lookup
+        return orderNumberGenerator.nextOrderNumber();
     }
 
     /**
@@ -403,65 +633,84 @@ public class OrderService {
     // FIXED: Methods to match your OrderController expectations
     
     /**
-     * Get user orders by user ID (for controller)
-     */
-    public List<OrderDTO> getUserOrders(Long userId) {
-        User user = userService.getUserById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Order> orders = orderRepository.findByUserOrderByCreatedAtDesc(user);
-        return orders.stream()
-                .map(DTOMapper::toOrderDTO)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Get user orders by username (alternative method)
+     * Get one page of a user's orders, newest first (for controller)
      */
-    public List<OrderDTO> getUserOrdersByUsername(String userEmail) {
-        User user = userService.getUserByUsername(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional(readOnly = true)
+    public OrderPageDTO getUserOrders(Long userId, String cursor, int size) {
+        if (summaryReadsEnabled) {
+            return orderSummaryService.getUserOrders(userId, cursor, size);
+        }
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
 
-        List<Order> orders = orderRepository.findByUserOrderByCreatedAtDesc(user);
-        return orders.stream()
-                .map(DTOMapper::toOrderDTO)
-                .collect(Collectors.toList());
+        List<Long> ids = after == null
+                ? orderRepository.findPageIdsByUser(userId, limit)
+                : orderRepository.findPageIdsByUserAfter(userId, after.getCreatedAt(), after.getId(), limit);
+        return loadOrderPage(ids, size);
     }
 
     /**
      * Get order by ID only (for admin - no user check)
      */
+    @Transactional(readOnly = true)
     public Optional<OrderDTO> getOrderById(Long orderId) {
+        if (summaryReadsEnabled) {
+            Optional<OrderDTO> summary = orderSummaryService.getOrder(orderId);
+            if (summary.isPresent()) {
+                return summary;
+            }
+        }
         return orderRepository.findById(orderId)
                 .map(DTOMapper::toOrderDTO);
     }
 
     /**
-     * Get order by ID with user verification (for user endpoints)
+     * Get one page of all orders, newest first (for admin)
      */
-    public OrderDTO getOrderByIdForUser(String userEmail, Long orderId) {
-        User user = userService.getUserByUsername(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        // Security check - make sure order belongs to user
-        if (!order.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Access denied to this order");
+    @Transactional(readOnly = true)
+    public OrderPageDTO getAllOrders(String cursor, int size) {
+        if (summaryReadsEnabled) {
+            return orderSummaryService.getAllOrders(cursor, size);
         }
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
 
-        return DTOMapper.toOrderDTO(order);
+        List<Long> ids = after == null
+                ? orderRepository.findPageIds(limit)
+                : orderRepository.findPageIdsAfter(after.getCreatedAt(), after.getId(), limit);
+        return loadOrderPage(ids, size);
     }
 
     /**
-     * Get all orders (for admin)
+     * Fetch a page of orders with users, items and products in one query.
+     * ids holds up to size + 1 entries; the extra one only signals a next page.
      */
-    public List<OrderDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAllByOrderByCreatedAtDesc();
-        return orders.stream()
-                .map(DTOMapper::toOrderDTO)
-                .collect(Collectors.toList());
+    private OrderPageDTO loadOrderPage(List<Long> ids, int size) {
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+        if (pageIds.isEmpty()) {
+            return new OrderPageDTO(List.of(), null);
+        }
+
+        Map<Long, Order> byId = orderRepository.findWithItemsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order, (a, b) -> a));
+
+        List<OrderDTO> orders = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Order order = byId.get(id);
+            if (order != null) {
+                orders.add(DTOMapper.toOrderDTO(order));
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = byId.get(pageIds.get(pageIds.size() - 1));
+            if (last != null) {
+                nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+        }
+        return new OrderPageDTO(orders, nextCursor);
     }
 
     /**
@@ -469,11 +718,13 @@ public class OrderService {
      */
     @Transactional
     public OrderDTO updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        // Row lock keeps this and checkout from writing the summary out of order
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
         order.setStatus(status);
         Order savedOrder = orderRepository.save(order);
+        orderChanged(savedOrder, OutboxEvent.ORDER_STATUS_CHANGED);
         
         logger.info("✅ Order {} status updated to: {}", orderId, status);
         return DTOMapper.toOrderDTO(savedOrder);
@@ -0,0 +1,74 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.Order;
+import com.ecommerce.ecommerce_backend.repository.OrderRepository;
+import com.ecommerce.ecommerce_backend.repository.OrderSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Writes order_summary rows for orders placed before the read model existed.
+ * Runs once after startup in batches of short transactions; on a table that
+ * is already backfilled it costs a single query.
+ */
+@Component
+public class OrderSummaryBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryBackfill.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.summary.backfill-enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.summary.backfill-batch-size:200}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long lastId = 0;
+            int total = 0;
+            while (true) {
+                List<Long> ids = orderSummaryRepository.findOrderIdsWithoutSummary(lastId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+                        orderSummaryService.record(order);
+                    }
+                });
+                total += ids.size();
+                lastId = ids.get(ids.size() - 1);
+            }
+            if (total > 0) {
+                logger.info("📚 Backfilled order summaries for {} orders", total);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Order summary backfill failed: {}", e.getMessage());
+        }
+    }
+}
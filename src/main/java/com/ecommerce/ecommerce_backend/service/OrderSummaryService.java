@@ -0,0 +1,119 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.DTOMapper;
+import com.ecommerce.ecommerce_backend.dto.OrderCursor;
+import com.ecommerce.ecommerce_backend.dto.OrderDTO;
+import com.ecommerce.ecommerce_backend.dto.OrderPageDTO;
+import com.ecommerce.ecommerce_backend.entity.Order;
+import com.ecommerce.ecommerce_backend.entity.OrderSummary;
+import com.ecommerce.ecommerce_backend.repository.OrderSummaryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the order_summary read model in sync with orders and serves order
+ * reads from it.
+ */
+@Service
+public class OrderSummaryService {
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Rewrite the summary of an order. Must run in the transaction that changed the order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Order order) {
+        // Timestamps and generated values are only filled in on flush
+        entityManager.flush();
+
+        OrderDTO dto = DTOMapper.toOrderDTO(order);
+        OrderSummary summary = orderSummaryRepository.findById(order.getId())
+                .orElseGet(() -> new OrderSummary(order.getId()));
+        summary.setUserId(dto.getUserId());
+        summary.setStatus(order.getStatus());
+        summary.setCreatedAt(order.getCreatedAt());
+        summary.setPayload(serialize(dto));
+        orderSummaryRepository.save(summary);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderDTO> getOrder(Long orderId) {
+        return orderSummaryRepository.findPayloadByOrderId(orderId).map(this::deserialize);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageDTO getUserOrders(Long userId, String cursor, int size) {
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<String> payloads = after == null
+                ? orderSummaryRepository.findPayloadsByUser(userId, limit)
+                : orderSummaryRepository.findPayloadsByUserAfter(userId, after.getCreatedAt(), after.getId(), limit);
+        return toPage(payloads, size);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageDTO getAllOrders(String cursor, int size) {
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<String> payloads = after == null
+                ? orderSummaryRepository.findPayloads(limit)
+                : orderSummaryRepository.findPayloadsAfter(after.getCreatedAt(), after.getId(), limit);
+        return toPage(payloads, size);
+    }
+
+    // payloads holds up to size + 1 entries; the extra one only signals a next page
+    private OrderPageDTO toPage(List<String> payloads, int size) {
+        boolean hasMore = payloads.size() > size;
+        int count = Math.min(payloads.size(), size);
+
+        List<OrderDTO> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(deserialize(payloads.get(i)));
+        }
+
+        String nextCursor = null;
+        if (hasMore && !orders.isEmpty()) {
+            OrderDTO last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPageDTO(orders, nextCursor);
+    }
+
+    private String serialize(OrderDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order summary", e);
+        }
+    }
+
+    private OrderDTO deserialize(String payload) {
+        try {
+            return objectMapper.readValue(payload, OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read order summary", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.OutboxEvent;
+import com.ecommerce.ecommerce_backend.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to the configured OutboxSink.
+ *
+ * Each batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED and marked
+ * published in the same short transaction, so several nodes can relay at
+ * once without handing out the same event twice. A failing batch stays
+ * pending and is retried on the next run; an event that keeps failing is
+ * parked as FAILED so it cannot block the ones behind it forever.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxSink outboxSink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention:P3D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        try {
+            int delivered;
+            do {
+                delivered = relayBatch();
+            } while (delivered == batchSize);
+        } catch (Exception e) {
+            logger.error("❌ Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim and deliver one batch. Returns the number of events delivered.
+     */
+    public int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository
+                    .findByStatusForUpdate(OutboxEvent.Status.PENDING, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                outboxSink.publish(batch);
+            } catch (Exception e) {
+                logger.warn("⚠️ Outbox sink rejected {} events, will retry: {}", batch.size(), e.getMessage());
+                recordFailure(batch, e);
+                return 0;
+            }
+
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+            outboxEventRepository.markPublished(ids, OutboxEvent.Status.PUBLISHED, LocalDateTime.now());
+            return batch.size();
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    private void recordFailure(List<OutboxEvent> batch, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 500) {
+            error = error.substring(0, 500);
+        }
+        for (OutboxEvent event : batch) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error);
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.FAILED);
+                logger.error("❌ Outbox event #{} {} parked as FAILED after {} attempts",
+                        event.getId(), event.getEventType(), event.getAttempts());
+            }
+        }
+        outboxEventRepository.saveAll(batch);
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        try {
+            Integer purged = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(
+                    OutboxEvent.Status.PUBLISHED, LocalDateTime.now().minus(retention)));
+            logger.info("🧹 Purged {} published outbox events", purged);
+        } catch (Exception e) {
+            logger.error("❌ Outbox purge failed: {}", e.getMessage());
+        }
+    }
+}
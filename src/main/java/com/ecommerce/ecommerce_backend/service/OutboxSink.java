@@ -0,0 +1,18 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for outbox events (message broker, log, file, ...).
+ * Delivery is at-least-once: a batch may be handed over again if the relay
+ * fails after publish returns, so consumers must deduplicate on the event id.
+ */
+public interface OutboxSink {
+
+    /**
+     * Deliver the batch in id order; throw to have the whole batch retried later
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
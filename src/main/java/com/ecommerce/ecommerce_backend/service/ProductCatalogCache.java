@@ -0,0 +1,122 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.DTOMapper;
+import com.ecommerce.ecommerce_backend.dto.ProductDTO;
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog reads served from memory.
+ *
+ * Two Caffeine caches (W-TinyLFU eviction, TTL as a safety net): single
+ * products by id, and the full/active lists. Both hold ProductDTOs, never
+ * entities. Writers publish ProductChangedEvent; the affected products are
+ * dropped once the write commits, and so are both lists unless only stock
+ * moved. Removing a key waits for an in-flight load of that key, so a read
+ * that raced with the write cannot stay cached after it.
+ *
+ * Stock moves on every reserve and release. Dropping the lists then would
+ * make checkout threads wait behind a whole-table reload and keep the lists
+ * almost always cold, so the stock figures in the lists are only as fresh as
+ * their own, shorter TTL.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL = "all";
+    private static final String ACTIVE = "active";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${products.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${products.cache.ttl:PT10M}")
+    private Duration ttl;
+
+    // Also bounds how stale the stock figures in the lists get
+    @Value("${products.cache.list-ttl:PT30S}")
+    private Duration listTtl;
+
+    private Cache<Long, ProductDTO> products;
+
+    private Cache<String, List<ProductDTO>> lists;
+
+    @PostConstruct
+    void start() {
+        products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        lists = Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(listTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product_catalog.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "product_catalog.lists");
+    }
+
+    public List<ProductDTO> getAllProducts() {
+        return lists.get(ALL, key -> toDTOs(productRepository.findAll()));
+    }
+
+    public List<ProductDTO> getActiveProducts() {
+        return lists.get(ACTIVE, key -> toDTOs(productRepository.findByActiveTrue()));
+    }
+
+    // Unknown ids are not cached, so they always cost a lookup
+    public Optional<ProductDTO> getProduct(Long id) {
+        return Optional.ofNullable(products.get(id,
+                key -> productRepository.findById(key).map(DTOMapper::toProductDTO).orElse(null)));
+    }
+
+    // Misses are loaded together in one query; unknown ids are simply absent from the result
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids) {
+        return products.getAll(ids, missing -> productRepository.findAllById(new ArrayList<>(missing)).stream()
+                .collect(Collectors.toMap(Product::getId, DTOMapper::toProductDTO)));
+    }
+
+    // Before CatalogSnapshot, which rebuilds from this cache
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidateAll(event.getProductIds());
+        if (event.isStockOnly()) {
+            return;
+        }
+        // By key: a keyed removal waits for an in-flight load of that key, a bare invalidateAll() does not
+        lists.invalidateAll(List.of(ALL, ACTIVE));
+    }
+
+    private static List<ProductDTO> toDTOs(List<Product> products) {
+        return Collections.unmodifiableList(products.stream()
+                .map(DTOMapper::toProductDTO)
+                .collect(Collectors.toList()));
+    }
+}
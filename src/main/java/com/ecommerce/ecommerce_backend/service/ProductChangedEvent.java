@@ -0,0 +1,42 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever product rows change (admin edits, stock movements).
+ * Listeners see it after the publishing transaction commits.
+ */
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+    private final boolean stockOnly;
+
+    public ProductChangedEvent(Long productId) {
+        this(Set.of(productId), false);
+    }
+
+    public ProductChangedEvent(Collection<Long> productIds) {
+        this(Set.copyOf(productIds), false);
+    }
+
+    private ProductChangedEvent(Set<Long> productIds, boolean stockOnly) {
+        this.productIds = productIds;
+        this.stockOnly = stockOnly;
+    }
+
+    /**
+     * Only stock_quantity moved (reservations, releases, hot ledger flushes)
+     */
+    public static ProductChangedEvent stockChanged(Collection<Long> productIds) {
+        return new ProductChangedEvent(Set.copyOf(productIds), true);
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isStockOnly() {
+        return stockOnly;
+    }
+}
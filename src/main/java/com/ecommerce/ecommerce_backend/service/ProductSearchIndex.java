@@ -0,0 +1,481 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductSearchView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search over the active catalog, held in memory.
+ *
+ * An inverted index over name, short description and description (weighted
+ * 3/2/1 into one BM25 term frequency). A query word matches index terms
+ * exactly, by prefix (search as you type) and, only if neither finds
+ * anything, by trigram similarity (typos, fragments). Documents matching
+ * more of the query words rank higher.
+ *
+ * Product edits only mark ids dirty (stock movements are ignored); a refresh
+ * every second re-reads those text columns in one query and reindexes the
+ * products whose text or active flag actually changed. A replaced document
+ * leaves a tombstone in its postings until the next full rebuild, which
+ * also picks up writes made on other nodes.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float SHORT_DESCRIPTION_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Expansions score below an exact match, scaled by how much of the term the query covers
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final float FUZZY_WEIGHT = 0.6f;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+    private static final int MAX_FUZZY_EXPANSIONS = 20;
+
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${products.search.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; replaced wholesale by a rebuild
+    private Segment segment = new Segment();
+
+    private volatile boolean ready;
+
+    // Products changed since the last refresh
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Keeps refresh and rebuild apart, so a rebuild never swaps out changes a refresh just applied
+    private final Object maintenanceLock = new Object();
+
+    /**
+     * False until the first build finished; callers fall back to the database meanwhile
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+    }
+
+    /**
+     * Load every active product into a fresh segment and swap it in.
+     */
+    @Scheduled(fixedDelayString = "${products.search.rebuild-interval-ms:600000}",
+            initialDelayString = "${products.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (maintenanceLock) {
+            try {
+                long started = System.nanoTime();
+                Segment fresh = new Segment();
+                long lastId = 0;
+                while (true) {
+                    List<ProductSearchView> rows =
+                            productRepository.findSearchTextAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                    if (rows.isEmpty()) {
+                        break;
+                    }
+                    for (ProductSearchView row : rows) {
+                        fresh.put(row);
+                    }
+                    lastId = rows.get(rows.size() - 1).getId();
+                }
+
+                lock.writeLock().lock();
+                try {
+                    segment = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                ready = true;
+                logger.info("🔎 Product search index built: {} products, {} terms in {} ms",
+                        fresh.liveCount, fresh.terms.size(), (System.nanoTime() - started) / 1_000_000);
+            } catch (Exception e) {
+                logger.error("❌ Product search index rebuild failed: {}", e.getMessage());
+            }
+        }
+        // Changes that committed while loading may not be in the rows that were read
+        refresh();
+    }
+
+    @Order(2)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock movements never change the indexed text
+        if (event.isStockOnly()) {
+            return;
+        }
+        dirty.addAll(event.getProductIds());
+    }
+
+    /**
+     * Reindex the products changed since the last refresh.
+     */
+    @Scheduled(fixedDelayString = "${products.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (!ready || dirty.isEmpty()) {
+            return;
+        }
+        synchronized (maintenanceLock) {
+            List<Long> ids = new ArrayList<>(dirty);
+            dirty.removeAll(ids);
+            try {
+                for (int from = 0; from < ids.size(); from += REFRESH_BATCH_SIZE) {
+                    List<Long> batch = ids.subList(from, Math.min(from + REFRESH_BATCH_SIZE, ids.size()));
+                    Map<Long, ProductSearchView> rows = new HashMap<>();
+                    for (ProductSearchView row : productRepository.findSearchTextByIdIn(batch)) {
+                        rows.put(row.getId(), row);
+                    }
+
+                    lock.writeLock().lock();
+                    try {
+                        for (Long id : batch) {
+                            ProductSearchView row = rows.get(id);
+                            if (row == null || !Boolean.TRUE.equals(row.getActive())) {
+                                segment.remove(id);
+                            } else {
+                                segment.put(row);
+                            }
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            } catch (Exception e) {
+                dirty.addAll(ids);
+                logger.error("❌ Product search index refresh failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ids of the best matching active products, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        lock.readLock().lock();
+        try {
+            return segment.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            if (token.length() > 1 || Character.isDigit(token.charAt(0))) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Padded so a term of length n has n trigrams and short terms still get some
+    static Set<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * One generation of the index. Documents are numbered in insertion order;
+     * postings only ever grow, removed documents are flagged in deleted.
+     */
+    private static final class Segment {
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<String, List<String>> termsByTrigram = new HashMap<>();
+        final Map<Long, Integer> docByProduct = new HashMap<>();
+        final BitSet deleted = new BitSet();
+        long[] productIds = new long[1024];
+        float[] lengths = new float[1024];
+        int[] textHashes = new int[1024];
+        int docCount;
+        int liveCount;
+        double liveLength;
+
+        void put(ProductSearchView row) {
+            int textHash = Objects.hash(row.getName(), row.getShortDescription(), row.getDescription());
+            Integer existing = docByProduct.get(row.getId());
+            if (existing != null) {
+                if (textHashes[existing] == textHash) {
+                    return;
+                }
+                remove(row.getId());
+            }
+
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = addField(frequencies, row.getName(), NAME_WEIGHT)
+                    + addField(frequencies, row.getShortDescription(), SHORT_DESCRIPTION_WEIGHT)
+                    + addField(frequencies, row.getDescription(), DESCRIPTION_WEIGHT);
+
+            int doc = docCount++;
+            if (doc == productIds.length) {
+                int capacity = productIds.length * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                textHashes = Arrays.copyOf(textHashes, capacity);
+            }
+            productIds[doc] = row.getId();
+            lengths[doc] = length;
+            textHashes[doc] = textHash;
+            docByProduct.put(row.getId(), doc);
+            liveCount++;
+            liveLength += length;
+
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                Postings postings = terms.get(entry.getKey());
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(entry.getKey(), postings);
+                    for (String gram : trigrams(entry.getKey())) {
+                        termsByTrigram.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry.getKey());
+                    }
+                }
+                postings.add(doc, entry.getValue());
+            }
+        }
+
+        void remove(Long productId) {
+            Integer doc = docByProduct.remove(productId);
+            if (doc != null) {
+                deleted.set(doc);
+                liveCount--;
+                liveLength -= lengths[doc];
+            }
+        }
+
+        private static float addField(Map<String, Float> frequencies, String text, float weight) {
+            List<String> tokens = tokenize(text);
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+
+        List<Long> search(List<String> tokens, int limit) {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            float averageLength = (float) (liveLength / liveCount);
+            float[] scores = new float[docCount];
+            float[] tokenScores = new float[docCount];
+            byte[] matchedTokens = new byte[docCount];
+            IntList touched = new IntList();
+            IntList tokenTouched = new IntList();
+
+            for (String token : tokens) {
+                for (Expansion expansion : expand(token)) {
+                    Postings postings = expansion.postings;
+                    // Tombstones still count towards df until the next rebuild; close enough for ranking
+                    float idf = (float) Math.log(1 + (Math.max(0, liveCount - postings.size) + 0.5) / (postings.size + 0.5));
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        if (deleted.get(doc)) {
+                            continue;
+                        }
+                        float tf = postings.frequencies[i];
+                        float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                        float score = expansion.weight * idf * tf * (K1 + 1) / (tf + norm);
+                        // A document matching several expansions of one word counts its best one
+                        if (tokenScores[doc] == 0) {
+                            tokenTouched.add(doc);
+                        }
+                        if (score > tokenScores[doc]) {
+                            tokenScores[doc] = score;
+                        }
+                    }
+                }
+
+                for (int i = 0; i < tokenTouched.size; i++) {
+                    int doc = tokenTouched.values[i];
+                    if (matchedTokens[doc] == 0) {
+                        touched.add(doc);
+                    }
+                    scores[doc] += tokenScores[doc];
+                    matchedTokens[doc]++;
+                    tokenScores[doc] = 0;
+                }
+                tokenTouched.size = 0;
+            }
+
+            // Min-heap of the best limit documents; ties go to the lower product id
+            Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(doc -> scores[doc] * matchedTokens[doc])
+                    .thenComparing(doc -> productIds[doc], Comparator.reverseOrder());
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, ranking);
+            for (int i = 0; i < touched.size; i++) {
+                best.add(touched.values[i]);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            Long[] result = new Long[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = productIds[best.poll()];
+            }
+            return Arrays.asList(result);
+        }
+
+        private List<Expansion> expand(String token) {
+            List<Expansion> expansions = new ArrayList<>();
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                expansions.add(new Expansion(exact, 1f));
+            }
+            if (token.length() >= 2) {
+                for (Map.Entry<String, Postings> entry
+                        : terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                    float coverage = (float) token.length() / entry.getKey().length();
+                    expansions.add(new Expansion(entry.getValue(), PREFIX_WEIGHT * coverage));
+                    if (expansions.size() > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+            if (expansions.isEmpty() && token.length() >= 3) {
+                expansions.addAll(similarTerms(token));
+            }
+            return expansions;
+        }
+
+        // Dice coefficient over trigrams; a term of length n has n trigrams
+        private List<Expansion> similarTerms(String token) {
+            Set<String> grams = trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                List<String> candidates = termsByTrigram.get(gram);
+                if (candidates != null) {
+                    for (String term : candidates) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<String, Double>> similar = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                double similarity = 2.0 * entry.getValue() / (grams.size() + entry.getKey().length());
+                if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+                    similar.add(Map.entry(entry.getKey(), similarity));
+                }
+            }
+            similar.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+            List<Expansion> expansions = new ArrayList<>();
+            for (Map.Entry<String, Double> entry : similar.subList(0, Math.min(similar.size(), MAX_FUZZY_EXPANSIONS))) {
+                expansions.add(new Expansion(terms.get(entry.getKey()), (float) (FUZZY_WEIGHT * entry.getValue())));
+            }
+            return expansions;
+        }
+    }
+
+    // Documents containing a term, with their weighted term frequency
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] frequencies = new float[4];
+        int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private static final class Expansion {
+        final Postings postings;
+        final float weight;
+
+        Expansion(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -1,17 +1,46 @@
 package com.ecommerce.ecommerce_backend.service;
 
+import com.ecommerce.ecommerce_backend.dto.DTOMapper;
+import com.ecommerce.ecommerce_backend.dto.ProductCursor;
+import com.ecommerce.ecommerce_backend.dto.ProductDTO;
+import com.ecommerce.ecommerce_backend.dto.ProductPageDTO;
 import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductFilter;
 import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductSort;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockLedger hotStockLedger;
+    
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -25,15 +54,83 @@ public class ProductService {
         return productRepository.findById(id);
     }
     
-    public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    // Catalog reads for the public endpoints: lists are pre-serialized snapshots, single products come from the cache
+    public CatalogSnapshot.Body getCatalogBody() {
+        return catalogSnapshot.allProducts();
+    }
+
+    public CatalogSnapshot.Body getActiveCatalogBody() {
+        return catalogSnapshot.activeProducts();
+    }
+
+    public Optional<CatalogSnapshot.Body> getCatalogProductBody(Long id) {
+        return Optional.ofNullable(catalogSnapshot.product(id));
+    }
+    
+    /**
+     * One page of the filtered, sorted listing. The cursor must come from a
+     * page with the same sort; filters may change between pages.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProductPage(ProductFilter filter, String sortParam, String cursor, int size) {
+        ProductSort sort = ProductSort.parse(sortParam);
+        ProductCursor after = cursor != null ? ProductCursor.decode(cursor) : null;
+        if (after != null && after.getSort() != sort) {
+            throw new IllegalArgumentException("Cursor belongs to a different sort order");
+        }
+
+        // One extra row only signals that there is a next page
+        List<Product> rows = after == null
+                ? productRepository.findPage(filter, sort, null, null, size + 1)
+                : productRepository.findPage(filter, sort, sort.parseKey(after.getKey()), after.getId(), size + 1);
+        boolean hasMore = rows.size() > size;
+        List<Product> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<ProductDTO> products = page.stream()
+                .map(DTOMapper::toProductDTO)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = page.get(page.size() - 1);
+            nextCursor = new ProductCursor(sort, sort.formatKey(last), last.getId()).encode();
+        }
+        return new ProductPageDTO(products, nextCursor);
+    }
+    
+    /**
+     * Active products matching the query, best match first.
+     */
+    public List<ProductDTO> searchProducts(String query, int limit) {
+        if (!productSearchIndex.isReady()) {
+            // Only until the index has been built after startup
+            return productRepository.findByNameContainingIgnoreCase(query.trim()).stream()
+                    .filter(product -> Boolean.TRUE.equals(product.getActive()))
+                    .limit(limit)
+                    .map(DTOMapper::toProductDTO)
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> ids = productSearchIndex.search(query, limit);
+        Map<Long, ProductDTO> products = productCatalogCache.getProducts(ids);
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        return savedProduct;
     }
     
     public Product updateProduct(Long id, Product productDetails) {
+        Product savedProduct = optimisticLockRetry.execute("product.update", () -> doUpdateProduct(id, productDetails));
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
+        return savedProduct;
+    }
+    
+    private Product doUpdateProduct(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         
@@ -43,12 +140,16 @@ public class ProductService {
         product.setStockQuantity(productDetails.getStockQuantity());
         product.setActive(productDetails.getActive());
         
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        // Absolute stock edits must reach the in-memory counters of hot SKUs too
+        hotStockLedger.reload(id);
+        return savedProduct;
     }
     
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 }
\ No newline at end of file
@@ -14,8 +14,11 @@ import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -42,6 +45,12 @@ public class ShoppingCartService {
     @Autowired
     private InventoryService inventoryService; 
 
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public ShoppingCartDTO getCartByUserId(Long userId) {
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -56,6 +65,11 @@ public class ShoppingCartService {
     }
 
     public ShoppingCartDTO addItemToCart(Long userId, Long productId, Integer quantity) {
+        return optimisticLockRetry.execute("cart.add",
+                () -> doAddItemToCart(userId, productId, quantity));
+    }
+
+    private ShoppingCartDTO doAddItemToCart(Long userId, Long productId, Integer quantity) {
         // 🔧 VALIDATION: Check for positive quantity
         if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be a positive number");
@@ -124,10 +138,15 @@ public class ShoppingCartService {
         cart.setTotalAmount(total);
     }
     public ShoppingCartDTO updateItemQuantity(Long userId, Long productId, Integer quantity) {
+        return optimisticLockRetry.execute("cart.update",
+                () -> doUpdateItemQuantity(userId, productId, quantity));
+    }
+
+    private ShoppingCartDTO doUpdateItemQuantity(Long userId, Long productId, Integer quantity) {
         // 🔧 VALIDATION: Handle zero/negative quantities
         if (quantity != null && quantity <= 0) {
             // Remove item instead of setting negative quantity
-            return removeItemFromCart(userId, productId);
+            return doRemoveItemFromCart(userId, productId);
         }
         
         if (quantity == null) {
@@ -165,6 +184,11 @@ public class ShoppingCartService {
         return DTOMapper.toShoppingCartDTO(cart);
     }
     public ShoppingCartDTO removeItemFromCart(Long userId, Long productId) {
+        return optimisticLockRetry.execute("cart.remove",
+                () -> doRemoveItemFromCart(userId, productId));
+    }
+
+    private ShoppingCartDTO doRemoveItemFromCart(Long userId, Long productId) {
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -205,6 +229,47 @@ public class ShoppingCartService {
         return DTOMapper.toShoppingCartDTO(cart);
     }
 
+    /**
+     * Take the quantities of a placed order out of the cart. Anything added
+     * while the order was being paid for stays in the cart.
+     */
+    public void removeOrderedItems(Long userId, Map<Long, Integer> orderedQuantities) {
+        // Own transaction per attempt, so a version conflict surfaces here and can be retried
+        optimisticLockRetry.execute("cart.checkout", () -> transactionTemplate.execute(status -> {
+            doRemoveOrderedItems(userId, orderedQuantities);
+            return null;
+        }));
+    }
+
+    private void doRemoveOrderedItems(Long userId, Map<Long, Integer> orderedQuantities) {
+        User user = userService.getUserById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        ShoppingCart cart = user.getShoppingCart();
+        if (cart == null) {
+            return;
+        }
+
+        for (CartItem cartItem : new ArrayList<>(cart.getCartItems())) {
+            Integer ordered = orderedQuantities.get(cartItem.getProduct().getId());
+            if (ordered == null) {
+                continue;
+            }
+            if (cartItem.getQuantity() <= ordered) {
+                cart.getCartItems().remove(cartItem);
+                cartItemService.deleteCartItem(cartItem.getId());
+            } else {
+                int remaining = cartItem.getQuantity() - ordered;
+                cartItem.setQuantity(remaining);
+                cartItem.setTotalPrice(cartItem.getUnitPrice().multiply(BigDecimal.valueOf(remaining)));
+                cartItemService.saveCartItem(cartItem);
+            }
+        }
+
+        recalculateCartTotal(cart);
+        shoppingCartRepository.save(cart);
+    }
+
     private ShoppingCart createCartForUser(User user) {
         ShoppingCart cart = new ShoppingCart();
         cart.setUser(user);
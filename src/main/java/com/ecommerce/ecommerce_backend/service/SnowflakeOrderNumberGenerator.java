@@ -0,0 +1,138 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and a 12 bit per-millisecond sequence, rendered in
+ * base 36 after the date (ORD-20250314-1b4k3x0ga2s).
+ *
+ * Uniqueness comes from the id alone, so no database lookup is needed.
+ * The clock and sequence live in a single AtomicLong updated by CAS. When the
+ * sequence runs out, or the wall clock steps backwards, the generator moves
+ * its logical clock one millisecond ahead instead of waiting, so callers
+ * never block and ids stay monotonic per node.
+ *
+ * The node id must be configured per instance: two nodes sharing one would
+ * hand out identical numbers within the same millisecond. Deriving it from
+ * the host name is only allowed when explicitly enabled (single local
+ * instance), since hashed host names collide too easily across many pods.
+ */
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderNumberGenerator.class);
+
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final long nodeId;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // (logical millis since EPOCH_MS << SEQUENCE_BITS) | sequence
+    private final AtomicLong state = new AtomicLong();
+
+    // Formatted date of the current day, replaced when the logical clock passes midnight
+    private volatile DatePrefix datePrefix;
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(@Value("${app.order-number.node-id:-1}") long nodeId,
+                                         @Value("${app.order-number.allow-derived-node-id:false}") boolean allowDerivedNodeId) {
+        if (nodeId < 0) {
+            if (!allowDerivedNodeId) {
+                throw new IllegalStateException("app.order-number.node-id is not set; give every instance its own id "
+                        + "between 0 and " + MAX_NODE_ID + " (or set app.order-number.allow-derived-node-id=true "
+                        + "for a single local instance)");
+            }
+            nodeId = deriveNodeId();
+            logger.warn("⚠️ app.order-number.node-id not set, using {} derived from the host name", nodeId);
+        }
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.order-number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    SnowflakeOrderNumberGenerator(long nodeId) {
+        this(nodeId, false);
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        long next = nextState();
+        long millis = next >>> SEQUENCE_BITS;
+        long id = (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+        return "ORD-" + datePrefix(EPOCH_MS + millis) + "-" + Long.toString(id, 36);
+    }
+
+    private long nextState() {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MS;
+            long lastMillis = current >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, or the clock went backwards: keep counting from the logical clock.
+                // Overflowing the sequence carries into the millisecond bits, i.e. borrows the next ms.
+                next = current + 1;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private String datePrefix(long epochMillis) {
+        DatePrefix prefix = datePrefix;
+        if (prefix == null || epochMillis < prefix.startMs || epochMillis >= prefix.endMs) {
+            LocalDate day = Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+            prefix = new DatePrefix(
+                    day.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                    day.format(DATE_FORMAT));
+            datePrefix = prefix;
+        }
+        return prefix.text;
+    }
+
+    private static long deriveNodeId() {
+        try {
+            return (InetAddress.getLocalHost().getHostName().hashCode() & 0x7fffffff) % (MAX_NODE_ID + 1);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static final class DatePrefix {
+        final long startMs;
+        final long endMs;
+        final String text;
+
+        DatePrefix(long startMs, long endMs, String text) {
+            this.startMs = startMs;
+            this.endMs = endMs;
+            this.text = text;
+        }
+    }
+}
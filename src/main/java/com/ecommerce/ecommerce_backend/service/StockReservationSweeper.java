@@ -0,0 +1,60 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Background job that gives back stock from checkouts that never finished
+ * (crashed JVM, abandoned payment, ...). Each batch runs in its own short
+ * transaction so a large backlog never holds locks for long.
+ */
+@Component
+public class StockReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationSweeper.class);
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Value("${inventory.reservation.sweep-batch-size:500}")
+    private int batchSize;
+
+    // Confirmed/released/expired rows are kept this long for auditing, then deleted
+    @Value("${inventory.reservation.retention:P7D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void sweepExpiredReservations() {
+        try {
+            int total = 0;
+            int expired;
+            do {
+                expired = inventoryService.expireStaleReservations(batchSize);
+                total += expired;
+            } while (expired == batchSize);
+
+            if (total > 0) {
+                logger.info("⌛ Reservation sweep returned stock for {} expired holds", total);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Reservation sweep failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${inventory.reservation.purge-cron:0 0 3 * * *}")
+    public void purgeFinishedReservations() {
+        try {
+            int purged = inventoryService.purgeFinishedReservations(LocalDateTime.now().minus(retention));
+            logger.info("🧹 Purged {} finished stock reservations", purged);
+        } catch (Exception e) {
+            logger.error("❌ Reservation purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -3,25 +3,35 @@ package com.ecommerce.ecommerce_backend.service;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentSearchResult;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentSearchParams;
+import com.stripe.param.RefundCreateParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class StripePaymentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(StripePaymentService.class);
+
     @Value("${stripe.api.key}")
     private String stripeApiKey;
 
     /**
      * Process payment with test card data (for testing with tok_visa)
      */
-    public PaymentIntent processTestCardPayment(BigDecimal amount, String currency, String customerEmail) 
-            throws StripeException {
+    public PaymentIntent processTestCardPayment(BigDecimal amount, String currency, String customerEmail,
+                                                String orderNumber) throws StripeException {
         
         Stripe.apiKey = stripeApiKey;
         
@@ -33,6 +43,7 @@ public class StripePaymentService {
         // Add metadata
         Map<String, String> metadata = new HashMap<>();
         metadata.put("customerEmail", customerEmail);
+        metadata.put("orderNumber", orderNumber);
         metadata.put("testPayment", "true");
         params.put("metadata", metadata);
         
@@ -49,10 +60,10 @@ public class StripePaymentService {
         
         try {
             PaymentIntent paymentIntent = PaymentIntent.create(params);
-            System.out.println("✅ Payment Intent Status: " + paymentIntent.getStatus());
+            logger.info("✅ Payment intent {} status {}", paymentIntent.getId(), paymentIntent.getStatus());
             return paymentIntent;
         } catch (StripeException e) {
-            System.err.println("❌ Stripe Error: " + e.getMessage());
+            logger.error("❌ Stripe error for order {}: {}", orderNumber, e.getMessage());
             
             // If the test payment method fails, create a simple payment intent
             // and mark it as succeeded for testing
@@ -61,16 +72,16 @@ public class StripePaymentService {
             PaymentIntent paymentIntent = PaymentIntent.create(params);
             
             // For testing, we'll simulate a successful payment
-            System.out.println("⚠️ Using simulated successful payment for testing");
-            return createSimulatedSuccessfulPayment(amount, currency, customerEmail);
+            logger.warn("⚠️ Using simulated successful payment for order {}", orderNumber);
+            return createSimulatedSuccessfulPayment(amount, currency, customerEmail, orderNumber);
         }
     }
 
     /**
      * Create a simulated successful payment for testing
      */
-    private PaymentIntent createSimulatedSuccessfulPayment(BigDecimal amount, String currency, String customerEmail) 
-            throws StripeException {
+    private PaymentIntent createSimulatedSuccessfulPayment(BigDecimal amount, String currency, String customerEmail,
+                                                           String orderNumber) throws StripeException {
         
         // Create a basic payment intent
         Map<String, Object> params = new HashMap<>();
@@ -79,11 +90,12 @@ public class StripePaymentService {
         
         Map<String, String> metadata = new HashMap<>();
         metadata.put("customerEmail", customerEmail);
+        metadata.put("orderNumber", orderNumber);
         metadata.put("testPayment", "simulated_success");
         params.put("metadata", metadata);
         
         PaymentIntent paymentIntent = PaymentIntent.create(params);
-        System.out.println("✅ Created test payment intent: " + paymentIntent.getId());
+        logger.info("✅ Created test payment intent {}", paymentIntent.getId());
         
         return paymentIntent;
     }
@@ -92,7 +104,8 @@ public class StripePaymentService {
      * Process payment with card token (for real payment method IDs)
      */
     public PaymentIntent processCardPayment(BigDecimal amount, String currency, 
-                                          String cardToken, String customerEmail) throws StripeException {
+                                          String cardToken, String customerEmail,
+                                          String orderNumber) throws StripeException {
         
         Stripe.apiKey = stripeApiKey;
         
@@ -102,9 +115,15 @@ public class StripePaymentService {
                 .setPaymentMethod(cardToken)
                 .setConfirm(true)
                 .putMetadata("customerEmail", customerEmail)
+                .putMetadata("orderNumber", orderNumber)
                 .build();
 
-        return PaymentIntent.create(params);
+        // One charge per order even if this call is retried
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey("checkout-" + orderNumber)
+                .build();
+
+        return PaymentIntent.create(params, options);
     }
 
     /**
@@ -133,6 +152,46 @@ public class StripePaymentService {
         return paymentIntent.confirm();
     }
 
+    /**
+     * Find the payment made for an order, either by its known intent id or by the
+     * orderNumber metadata written at checkout (used to recover interrupted checkouts)
+     */
+    public Optional<PaymentIntent> findPaymentForOrder(String orderNumber, String knownPaymentIntentId)
+            throws StripeException {
+        Stripe.apiKey = stripeApiKey;
+
+        if (knownPaymentIntentId != null) {
+            return Optional.of(PaymentIntent.retrieve(knownPaymentIntentId));
+        }
+
+        PaymentIntentSearchParams params = PaymentIntentSearchParams.builder()
+                .setQuery("metadata['orderNumber']:'" + orderNumber + "'")
+                .build();
+
+        PaymentIntentSearchResult result = PaymentIntent.search(params);
+        return result.getData().stream()
+                .filter(this::isPaymentSuccessful)
+                .findFirst()
+                .or(() -> result.getData().stream().findFirst());
+    }
+
+    /**
+     * Refund a payment in full (order could not be fulfilled after charging)
+     */
+    public Refund refundPayment(String paymentIntentId) throws StripeException {
+        Stripe.apiKey = stripeApiKey;
+
+        RefundCreateParams params = RefundCreateParams.builder()
+                .setPaymentIntent(paymentIntentId)
+                .build();
+
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey("refund-" + paymentIntentId)
+                .build();
+
+        return Refund.create(params, options);
+    }
+
     /**
      * Convert dollar amount to cents for Stripe
      */
@@ -153,7 +212,7 @@ public class StripePaymentService {
                            ("requires_payment_method".equals(status) && 
                             "simulated_success".equals(paymentIntent.getMetadata().get("testPayment")));
         
-        System.out.println("💳 Payment Status: " + status + " → Success: " + isSuccess);
+        logger.debug("💳 Payment status {} → success: {}", status, isSuccess);
         return isSuccess;
     }
 }
\ No newline at end of file
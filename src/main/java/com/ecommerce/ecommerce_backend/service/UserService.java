@@ -3,6 +3,11 @@ package com.ecommerce.ecommerce_backend.service;
 import com.ecommerce.ecommerce_backend.entity.Role;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.security.ParsedToken;
+import com.ecommerce.ecommerce_backend.security.TokenRevocationService;
+import com.ecommerce.ecommerce_backend.security.VerifiedTokenCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,45 +21,30 @@ import java.util.Optional;
 @Service
 public class UserService implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("🔍 UserService.loadUserByUsername called with: " + username);
-        
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
-        System.out.println("✅ User found: " + user.getUsername());
-        System.out.println("🔐 Stored password hash: " + user.getPassword());
-        System.out.println("👤 User authorities: " + user.getAuthorities());
-        System.out.println("🎯 User enabled: " + user.isEnabled());
-        
-        return user;
-    }
 
-    // Add a method to test password matching
-    public boolean testPasswordMatch(String username, String rawPassword) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            String storedHash = user.getPassword();
-            boolean matches = passwordEncoder.matches(rawPassword, storedHash);
-            
-            System.out.println("🧪 PASSWORD MATCH TEST 🧪");
-            System.out.println("Username: " + username);
-            System.out.println("Raw password: '" + rawPassword + "'");
-            System.out.println("Stored hash: " + storedHash);
-            System.out.println("Password matches: " + matches);
-            System.out.println("Password encoder: " + passwordEncoder.getClass().getSimpleName());
-            
-            return matches;
+        if (logger.isDebugEnabled()) {
+            logger.debug("🔍 Loaded user {} (authorities {}, enabled {})",
+                    user.getUsername(), user.getAuthorities(), user.isEnabled());
         }
-        return false;
+        return user;
     }
 
     // Rest of your existing methods...
@@ -76,15 +66,9 @@ public class UserService implements UserDetailsService {
     }
 
     public User createUser(User user) {
-        String rawPassword = user.getPassword();
-        String encodedPassword = passwordEncoder.encode(rawPassword);
-        
-        System.out.println("🆕 CREATING NEW USER 🆕");
-        System.out.println("Username: " + user.getUsername());
-        System.out.println("Raw password: '" + rawPassword + "'");
-        System.out.println("Encoded password: " + encodedPassword);
-        
-        user.setPassword(encodedPassword);
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        logger.info("🆕 Creating user {}", user.getUsername());
+
         if (user.getRole() == null) {
             user.setRole(Role.CUSTOMER);
         }
@@ -101,6 +85,10 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // Tokens carry the username as subject, so a rename invalidates them like a new password does
+        String previousUsername = user.getUsername();
+        boolean revokeTokens = !previousUsername.equals(userDetails.getUsername());
+
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setFirstName(userDetails.getFirstName());
@@ -110,9 +98,14 @@ public class UserService implements UserDetailsService {
         // Only update password if it's provided and not empty
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            revokeTokens = true;
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (revokeTokens) {
+            revokeTokens(id, previousUsername);
+        }
+        return saved;
     }
 
     public User updateUserProfile(User currentUser, User userDetails) {
@@ -122,17 +115,71 @@ public class UserService implements UserDetailsService {
         currentUser.setEmail(userDetails.getEmail());
 
         // Only update password if it's provided and not empty
-        if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
+        boolean passwordChanged = userDetails.getPassword() != null && !userDetails.getPassword().isEmpty();
+        if (passwordChanged) {
             currentUser.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
 
-        return userRepository.save(currentUser);
+        User saved = userRepository.save(currentUser);
+        if (passwordChanged) {
+            revokeTokens(currentUser.getId(), currentUser.getUsername());
+        }
+        return saved;
     }
 
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.delete(user);
+        forgetTokens(id, user.getUsername());
+    }
+
+    public User changeRole(Long id, Role role) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() == role) {
+            return user;
+        }
+        // Roles are baked into the token, so the old ones must stop working
+        user.setRole(role);
+        User saved = userRepository.save(user);
+        revokeTokens(id, user.getUsername());
+        return saved;
+    }
+
+    public User setActive(Long id, boolean active) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setActive(active);
+        User saved = userRepository.save(user);
+        if (active) {
+            // Reactivated users must not wait for a cached miss to expire
+            forgetTokens(id, user.getUsername());
+        } else {
+            // Also bumps the version, so reactivating later does not bring the old tokens back
+            revokeTokens(id, user.getUsername());
+        }
+        return saved;
+    }
+
+    /**
+     * Deny the presented token until it expires
+     */
+    public void logout(ParsedToken token) {
+        tokenRevocationService.deny(token);
+        verifiedTokenCache.invalidate(token.getTokenHash());
+    }
+
+    // The only way token_version moves: one atomic increment, so concurrent bumps are never lost
+    private void revokeTokens(Long userId, String username) {
+        tokenRevocationService.revokeAll(userId);
+        verifiedTokenCache.invalidateUser(userId, username);
+    }
+
+    // Drop what this node remembers about the user's tokens; other nodes catch up within the cache TTLs
+    private void forgetTokens(Long userId, String username) {
+        tokenRevocationService.evict(userId);
+        verifiedTokenCache.invalidateUser(userId, username);
     }
 
     public boolean existsByUsername(String username) {
@@ -0,0 +1,75 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.Order;
+import com.ecommerce.ecommerce_backend.entity.OrderItem;
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-batch;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderBatchInsertTest {
+
+    private static final int LINES = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void fiftyLineOrderIsInsertedInBatches() {
+        User user = new User("batcher", "batcher@example.com", "secret123", "Batch", "Buyer");
+        entityManager.persist(user);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product("Item " + i, "Batch test", new BigDecimal("3.00"), 100);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Order order = new Order("ORD-20250101-batch", entityManager.getReference(User.class, user.getId()),
+                new BigDecimal("150.00"), "CARD");
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(entityManager.getReference(Product.class, product.getId()));
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("3.00"));
+            order.getOrderItems().add(item);
+        }
+        orderRepository.save(order);
+        entityManager.flush();
+
+        assertEquals(LINES + 1, statistics.getEntityInsertCount());
+        // One INSERT per row would be 51+ statements; batched it is one per table plus id block fetches
+        assertTrue(statistics.getPrepareStatementCount() <= 12,
+                "Expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-page;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductPageQueryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void keysetPagesVisitEveryMatchingProductOnceInOrder() {
+        // Repeated prices so the id tiebreaker matters
+        for (int i = 0; i < 25; i++) {
+            Product product = new Product("Item " + i, "Paging test", new BigDecimal(10 + i % 5), i % 3 == 0 ? 0 : 4);
+            product.setActive(i % 7 != 0);
+            productRepository.save(product);
+        }
+        ProductFilter filter = new ProductFilter(true, new BigDecimal("11"), null, true);
+
+        List<Product> seen = new ArrayList<>();
+        List<Product> page = productRepository.findPage(filter, ProductSort.PRICE_DESC, null, null, 4);
+        while (!page.isEmpty()) {
+            seen.addAll(page);
+            Product last = page.get(page.size() - 1);
+            page = productRepository.findPage(filter, ProductSort.PRICE_DESC,
+                    ProductSort.PRICE_DESC.parseKey(ProductSort.PRICE_DESC.formatKey(last)), last.getId(), 4);
+        }
+
+        List<Product> expected = productRepository.findAll().stream()
+                .filter(p -> p.getActive() && p.getStockQuantity() > 0 && p.getPrice().compareTo(new BigDecimal("11")) >= 0)
+                .sorted((a, b) -> {
+                    int byPrice = b.getPrice().compareTo(a.getPrice());
+                    return byPrice != 0 ? byPrice : b.getId().compareTo(a.getId());
+                })
+                .toList();
+        assertTrue(expected.size() > 4);
+        assertEquals(expected.stream().map(Product::getId).toList(), seen.stream().map(Product::getId).toList());
+    }
+}
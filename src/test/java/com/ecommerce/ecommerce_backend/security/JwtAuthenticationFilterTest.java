@@ -0,0 +1,181 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import com.ecommerce.ecommerce_backend.entity.Role;
+import com.ecommerce.ecommerce_backend.entity.User;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A token that was authenticated once (and so sits in the verified-token cache)
+ * must stop authenticating as soon as it is revoked on this node.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final long USER_ID = 42L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserService userService = mock(UserService.class);
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenRevocationService tokenRevocationService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-that-is-at-least-32-bytes-long");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        jwtUtil.init();
+
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(verifiedTokenCache, "enabled", true);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxSize", 100);
+        ReflectionTestUtils.setField(verifiedTokenCache, "ttl", Duration.ofMinutes(5));
+        verifiedTokenCache.registerMetrics();
+
+        tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenRevocationService, "versionCacheTtl", Duration.ofSeconds(30));
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+
+        when(userRepository.findActiveTokenVersion(USER_ID)).thenReturn(Optional.of(0));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loggedOutTokenIsRejectedOnACacheHit() throws Exception {
+        String token = jwtUtil.generateToken(user(Role.CUSTOMER, 0));
+        assertNotNull(authenticate(token));
+        assertNotNull(verifiedTokenCache.get(ParsedToken.hash(token)));
+
+        // Deny only: the cached entry is still there, the hit itself must catch it
+        tokenRevocationService.deny(jwtUtil.parse(token));
+
+        assertNull(authenticate(token));
+        assertNull(verifiedTokenCache.get(ParsedToken.hash(token)));
+    }
+
+    @Test
+    void tokenVersionBumpRevokesCachedTokens() throws Exception {
+        String token = jwtUtil.generateToken(user(Role.CUSTOMER, 0));
+        assertNotNull(authenticate(token));
+
+        when(userRepository.incrementTokenVersion(USER_ID)).thenReturn(1);
+        when(userRepository.findActiveTokenVersion(USER_ID)).thenReturn(Optional.of(1));
+        tokenRevocationService.revokeAll(USER_ID);
+
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void deactivatedUserIsRejectedOnACacheHit() throws Exception {
+        String token = jwtUtil.generateToken(user(Role.CUSTOMER, 0));
+        assertNotNull(authenticate(token));
+
+        when(userRepository.findActiveTokenVersion(USER_ID)).thenReturn(Optional.empty());
+        tokenRevocationService.evict(USER_ID);
+
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void roleChangeRejectsTheOldTokenAndHonorsTheNewOne() throws Exception {
+        String customerToken = jwtUtil.generateToken(user(Role.CUSTOMER, 0));
+        assertNotNull(authenticate(customerToken));
+
+        // What UserService.changeRole does: bump the version, then forget the user's tokens
+        when(userRepository.findActiveTokenVersion(USER_ID)).thenReturn(Optional.of(1));
+        tokenRevocationService.evict(USER_ID);
+        verifiedTokenCache.invalidateUser(USER_ID, "alice");
+
+        assertNull(authenticate(customerToken));
+        Authentication admin = authenticate(jwtUtil.generateToken(user(Role.ADMIN, 1)));
+        assertNotNull(admin);
+        assertEquals("ROLE_ADMIN", admin.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void invalidateUserMatchesByIdAndByUsername() {
+        ParsedToken withId = jwtUtil.parse(jwtUtil.generateToken(user(Role.CUSTOMER, 0)));
+        // Tokens issued before the uid claim only carry the username
+        ParsedToken legacy = jwtUtil.parse(jwtUtil.generateToken(
+                org.springframework.security.core.userdetails.User.withUsername("alice")
+                        .password("")
+                        .roles("CUSTOMER")
+                        .build()));
+        verifiedTokenCache.put(withId, null);
+        verifiedTokenCache.put(legacy, null);
+
+        verifiedTokenCache.invalidateUser(USER_ID, null);
+        assertNull(verifiedTokenCache.get(withId.getTokenHash()));
+        assertNotNull(verifiedTokenCache.get(legacy.getTokenHash()));
+
+        verifiedTokenCache.invalidateUser(null, "alice");
+        assertNull(verifiedTokenCache.get(legacy.getTokenHash()));
+    }
+
+    @Test
+    void statefulModeReloadsTheUserOnEveryRequest() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessAuth", false);
+        User alice = user(Role.CUSTOMER, 0);
+        String token = jwtUtil.generateToken(alice);
+        when(userService.loadUserByUsername("alice")).thenReturn(alice);
+        assertNotNull(authenticate(token));
+
+        alice.setActive(false);
+        assertNull(authenticate(token));
+
+        // Renamed (or deleted): the subject no longer resolves
+        when(userService.loadUserByUsername("alice")).thenThrow(new UsernameNotFoundException("alice"));
+        assertNull(authenticate(token));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static User user(Role role, int tokenVersion) {
+        User user = new User("alice", "alice@example.com", "", "Alice", "Example");
+        user.setId(USER_ID);
+        user.setRole(role);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
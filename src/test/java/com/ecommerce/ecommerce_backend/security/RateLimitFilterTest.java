@@ -0,0 +1,150 @@
+package com.ecommerce.ecommerce_backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 200_000;
+
+    @Test
+    void bucketAllowsBurstThenRefills() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(3, 1, now);
+
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        long wait = bucket.tryConsume(now);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        assertEquals(0, bucket.tryConsume(now + wait));
+        assertTrue(bucket.tryConsume(now + wait) > 0);
+        assertTrue(bucket.isIdle(now + TimeUnit.SECONDS.toNanos(60), TimeUnit.SECONDS.toNanos(30)));
+    }
+
+    @Test
+    void concurrentTakersNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(1_000, 0.001, 0);
+        AtomicInteger granted = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (bucket.tryConsume(1) == 0) {
+                    granted.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    void rejectsWithRetryAfterOnceTheBurstIsSpent() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Route("login", "POST", "/api/auth/login", 2, 0.1,
+                RateLimitProperties.KeyType.IP));
+
+        assertEquals(200, login(filter, "10.0.0.1").getStatus());
+        assertEquals(200, login(filter, "10.0.0.1").getStatus());
+        MockHttpServletResponse limited = login(filter, "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+
+        // Another client has its own bucket
+        assertEquals(200, login(filter, "10.0.0.2").getStatus());
+    }
+
+    /**
+     * Coarse stand-in for a JMH benchmark: every request of several threads goes
+     * through the filter on a handful of shared buckets. Wall-clock bound, so it
+     * only runs with -Pperformance.
+     */
+    @Test
+    @Tag("performance")
+    void overheadPerRequestUnderContention() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Route("catalog", "GET", "/api/products/**",
+                Integer.MAX_VALUE / 2, 1_000_000_000, RateLimitProperties.KeyType.IP));
+        FilterChain chain = (request, response) -> { };
+        AtomicInteger thread = new AtomicInteger();
+
+        long began = System.nanoTime();
+        runConcurrently(() -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/42");
+            request.setRemoteAddr("10.0.0." + thread.incrementAndGet() % 4);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            for (int i = 0; i < PER_THREAD; i++) {
+                // OncePerRequestFilter marks the request; clear it so every iteration is filtered
+                request.clearAttributes();
+                filter.doFilter(request, response, chain);
+            }
+        });
+        long nanosPerRequest = (System.nanoTime() - began) * THREADS / ((long) THREADS * PER_THREAD);
+
+        assertTrue(nanosPerRequest < TimeUnit.MICROSECONDS.toNanos(50),
+                "Rate limiting took " + nanosPerRequest + " ns per request");
+    }
+
+    private static MockHttpServletResponse login(RateLimitFilter filter, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private static RateLimitFilter filter(RateLimitProperties.Route route) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.invokeMethod(filter, "compileRoutes");
+        return filter;
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static void runConcurrently(Work work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    work.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot-ledger;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InventoryService.class, HotStockLedger.class, OutboxService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotStockLedgerTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void replaysUnflushedChangesAfterCrash() throws IOException {
+        Long productId = product("Drop Sneaker", 10);
+        HotStockLedger crashed = ledger(productId, new TransactionTemplate(transactionManager));
+        reserveAndCommit(crashed, productId, 3);
+
+        HotStockLedger restarted = ledger(productId, new TransactionTemplate(transactionManager));
+
+        assertEquals(7, stockInDatabase(productId));
+        assertEquals(7, restarted.getAvailable(productId));
+    }
+
+    @Test
+    void crashBeforeTheOrderCommitsLeavesStockUnchanged() throws IOException {
+        Long productId = product("Drop Beanie", 10);
+        HotStockLedger crashed = ledger(productId, new TransactionTemplate(transactionManager));
+        // Held, but the JVM dies before the order transaction commits
+        assertTrue(crashed.tryReserve(Map.of(productId, 3)));
+        assertEquals(7, crashed.getAvailable(productId));
+
+        HotStockLedger restarted = ledger(productId, new TransactionTemplate(transactionManager));
+
+        assertEquals(10, stockInDatabase(productId));
+        assertEquals(10, restarted.getAvailable(productId));
+    }
+
+    @Test
+    void flushedSegmentsLeftOnDiskAreNotReplayed() throws IOException {
+        Long productId = product("Drop Hoodie", 10);
+        HotStockLedger ledger = ledger(productId, new TransactionTemplate(transactionManager));
+        reserveAndCommit(ledger, productId, 3);
+
+        // Crash between the flush commit and the segment delete: the segment is still there on restart
+        Path backup = Files.createDirectory(journalDir.resolve("backup"));
+        copyJournals(journalDir, backup);
+        ledger.flush();
+        copyJournals(backup, journalDir);
+
+        HotStockLedger restarted = ledger(productId, new TransactionTemplate(transactionManager));
+
+        assertEquals(7, stockInDatabase(productId));
+        assertEquals(7, restarted.getAvailable(productId));
+    }
+
+    @Test
+    void failedFlushKeepsChangesForTheNextFlush() throws IOException {
+        Long productId = product("Drop Cap", 10);
+        AtomicBoolean databaseDown = new AtomicBoolean();
+        TransactionTemplate flaky = new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                if (databaseDown.get()) {
+                    throw new TransientDataAccessResourceException("database down");
+                }
+                return super.execute(action);
+            }
+        };
+        HotStockLedger ledger = ledger(productId, flaky);
+        reserveAndCommit(ledger, productId, 3);
+
+        databaseDown.set(true);
+        ledger.flush();
+        assertEquals(10, stockInDatabase(productId));
+        assertEquals(7, ledger.getAvailable(productId));
+
+        databaseDown.set(false);
+        ledger.flush();
+        ledger.flush();
+        assertEquals(7, stockInDatabase(productId));
+    }
+
+    @Test
+    void reservationRolledBackByColdShortageReleasesHotUnits() throws IOException {
+        Long hotId = product("Drop Jacket", 5);
+        Long coldId = product("Laces", 1);
+        HotStockLedger ledger = ledger(hotId, new TransactionTemplate(transactionManager));
+
+        Object target = AopTestUtils.getTargetObject(inventoryService);
+        Object original = ReflectionTestUtils.getField(target, "hotStockLedger");
+        ReflectionTestUtils.setField(target, "hotStockLedger", ledger);
+        try {
+            assertFalse(inventoryService.reserveInventory(Map.of(hotId, 2, coldId, 5)));
+        } finally {
+            ReflectionTestUtils.setField(target, "hotStockLedger", original);
+        }
+
+        assertEquals(5, ledger.getAvailable(hotId));
+        assertEquals(1, stockInDatabase(coldId));
+    }
+
+    @Test
+    void deactivatedSkuIsNotSold() throws IOException {
+        Long productId = product("Drop Bag", 10);
+        HotStockLedger ledger = ledger(productId, new TransactionTemplate(transactionManager));
+
+        jdbcTemplate.update("UPDATE products SET active = FALSE WHERE id = ?", productId);
+        ledger.reload(productId);
+
+        assertFalse(ledger.tryReserve(Map.of(productId, 1)));
+    }
+
+    private static void reserveAndCommit(HotStockLedger ledger, Long productId, int quantity) {
+        assertTrue(ledger.tryReserve(Map.of(productId, quantity)));
+        ledger.commit(Map.of(productId, quantity));
+    }
+
+    private Long product(String name, int stock) {
+        return productRepository.save(new Product(name, "Hot ledger test", new BigDecimal("50.00"), stock)).getId();
+    }
+
+    private int stockInDatabase(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private HotStockLedger ledger(Long productId, TransactionTemplate transactionTemplate) throws IOException {
+        HotStockLedger ledger = new HotStockLedger();
+        ReflectionTestUtils.setField(ledger, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(ledger, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(ledger, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "hotSkus", List.of(productId));
+        ReflectionTestUtils.setField(ledger, "journalDir", journalDir.toString());
+        ledger.start();
+        return ledger;
+    }
+
+    private static void copyJournals(Path from, Path to) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(from, "sku-*.journal")) {
+            for (Path segment : stream) {
+                Files.copy(segment, to.resolve(segment.getFileName()));
+            }
+        }
+    }
+}
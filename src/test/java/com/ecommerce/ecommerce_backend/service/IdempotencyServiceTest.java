@@ -0,0 +1,100 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.dto.CreateOrderRequestDTO;
+import com.ecommerce.ecommerce_backend.dto.OrderDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdempotencyService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void concurrentRequestsWithTheSameKeyButDifferentBodiesAreRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderDTO> first = executor.submit(() ->
+                    idempotencyService.execute("alice", "key-1", request("tok_visa"), () -> {
+                        placed.incrementAndGet();
+                        started.countDown();
+                        await(finish);
+                        return order(1L);
+                    }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // Joins the running request on this node, but with a different body
+            IdempotencyException reused = assertThrows(IdempotencyException.class, () ->
+                    idempotencyService.execute("alice", "key-1", request("tok_mastercard"), () -> {
+                        placed.incrementAndGet();
+                        return order(2L);
+                    }));
+            assertEquals(IdempotencyException.Reason.KEY_REUSED, reused.getReason());
+
+            Future<OrderDTO> duplicate = executor.submit(() ->
+                    idempotencyService.execute("alice", "key-1", request("tok_visa"), () -> {
+                        placed.incrementAndGet();
+                        return order(3L);
+                    }));
+
+            finish.countDown();
+            assertEquals(1L, first.get(10, TimeUnit.SECONDS).getId());
+            assertEquals(1L, duplicate.get(10, TimeUnit.SECONDS).getId());
+            assertEquals(1, placed.get());
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static CreateOrderRequestDTO request(String cardToken) {
+        CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+        request.setPaymentMethod("card");
+        request.setCardToken(cardToken);
+        return request;
+    }
+
+    private static OrderDTO order(Long id) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        return order;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InventoryService.class, HotStockLedger.class, OutboxService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 200;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Product product = productRepository.save(
+                new Product("Drop Sneaker", "Limited run", new BigDecimal("199.00"), INITIAL_STOCK));
+        Long productId = product.getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return inventoryService.reserveInventory(Map.of(productId, 1));
+                }));
+            }
+            start.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+
+            assertEquals(INITIAL_STOCK, successes);
+            assertEquals(0, productRepository.findById(productId).orElseThrow().getStockQuantity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void partialFailureRollsBackWholeReservation() {
+        Product plenty = productRepository.save(
+                new Product("Socks", "Cotton", new BigDecimal("5.00"), 10));
+        Product scarce = productRepository.save(
+                new Product("Cap", "Wool", new BigDecimal("25.00"), 1));
+
+        boolean reserved = inventoryService.reserveInventory(Map.of(plenty.getId(), 3, scarce.getId(), 2));
+
+        assertFalse(reserved);
+        assertEquals(10, productRepository.findById(plenty.getId()).orElseThrow().getStockQuantity());
+        assertEquals(1, productRepository.findById(scarce.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void releaseRestoresStock() {
+        Product product = productRepository.save(
+                new Product("Mug", "Ceramic", new BigDecimal("12.00"), 5));
+
+        assertTrue(inventoryService.reserveInventory(Map.of(product.getId(), 4)));
+        inventoryService.releaseInventory(Map.of(product.getId(), 4));
+
+        assertEquals(5, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+}
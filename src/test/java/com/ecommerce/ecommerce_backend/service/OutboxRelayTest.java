@@ -0,0 +1,84 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.OutboxEvent;
+import com.ecommerce.ecommerce_backend.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "outbox.sink=memory"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutboxService.class, OutboxRelay.class, InMemoryOutboxSink.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void reset() {
+        outboxEventRepository.deleteAll();
+        sink.clear();
+    }
+
+    @Test
+    void committedEventsAreDeliveredInOrderAndMarkedPublished() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish(OutboxEvent.ORDER, 1L, OutboxEvent.ORDER_CREATED, Map.of("orderId", 1));
+            outboxService.publish(OutboxEvent.ORDER, 1L, OutboxEvent.ORDER_STATUS_CHANGED, Map.of("orderId", 1));
+        });
+
+        assertEquals(2, outboxRelay.relayBatch());
+
+        List<String> delivered = sink.getEvents().stream()
+                .map(OutboxEvent::getEventType)
+                .collect(Collectors.toList());
+        assertEquals(List.of(OutboxEvent.ORDER_CREATED, OutboxEvent.ORDER_STATUS_CHANGED), delivered);
+        assertTrue(outboxEventRepository.findAll().stream()
+                .allMatch(event -> event.getStatus() == OutboxEvent.Status.PUBLISHED));
+        assertEquals(0, outboxRelay.relayBatch());
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoEvent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish(OutboxEvent.ORDER, 2L, OutboxEvent.ORDER_CREATED, Map.of("orderId", 2));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRelay.relayBatch());
+        assertTrue(sink.getEvents().isEmpty());
+    }
+}
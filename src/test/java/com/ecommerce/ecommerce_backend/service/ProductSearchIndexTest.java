@@ -0,0 +1,82 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-search;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductSearchIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product headphones;
+    private Product earbuds;
+    private Product hidden;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        headphones = productRepository.save(new Product("Wireless Headphones",
+                "Over-ear headphones with noise cancelling", new BigDecimal("199.00"), 10));
+        earbuds = productRepository.save(new Product("Wired Earbuds",
+                "In-ear buds, great as backup headphones", new BigDecimal("19.00"), 10));
+        Product inactive = new Product("Headphone Stand", "Aluminium", new BigDecimal("29.00"), 10);
+        inactive.setActive(false);
+        hidden = productRepository.save(inactive);
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void ranksNameMatchesFirstAndSkipsInactiveProducts() {
+        assertEquals(List.of(headphones.getId(), earbuds.getId()), productSearchIndex.search("headphones", 10));
+    }
+
+    @Test
+    void matchesPrefixesAndTypos() {
+        assertEquals(headphones.getId(), productSearchIndex.search("headph", 10).get(0));
+        assertEquals(earbuds.getId(), productSearchIndex.search("earbusd", 10).get(0));
+    }
+
+    @Test
+    void refreshAppliesChangedProducts() {
+        Product stand = productRepository.findById(hidden.getId()).orElseThrow();
+        stand.setActive(true);
+        productRepository.save(stand);
+        Product renamed = productRepository.findById(earbuds.getId()).orElseThrow();
+        renamed.setName("Wired Earphones");
+        renamed.setDescription("In-ear buds");
+        productRepository.save(renamed);
+
+        productSearchIndex.onProductChanged(new ProductChangedEvent(List.of(stand.getId(), renamed.getId())));
+        productSearchIndex.refresh();
+
+        List<Long> results = productSearchIndex.search("headphone", 10);
+        assertTrue(results.contains(stand.getId()));
+        assertFalse(results.contains(earbuds.getId()));
+        assertEquals(List.of(earbuds.getId()), productSearchIndex.search("earphones", 10));
+    }
+}
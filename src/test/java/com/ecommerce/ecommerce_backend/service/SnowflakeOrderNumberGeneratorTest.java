@@ -0,0 +1,75 @@
+package com.ecommerce.ecommerce_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 250_000;
+
+    @Test
+    void concurrentCallersNeverCollide() throws Exception {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7);
+        Set<String> seen = ConcurrentHashMap.newKeySet(THREADS * PER_THREAD);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        seen.add(generator.nextOrderNumber());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(THREADS * PER_THREAD, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void carriesTheNodeIdInItsOwnBits() {
+        for (long nodeId : new long[]{0, 1, 7, 512, 1023}) {
+            String orderNumber = new SnowflakeOrderNumberGenerator(nodeId).nextOrderNumber();
+            long id = Long.parseLong(orderNumber.substring(orderNumber.lastIndexOf('-') + 1), 36);
+            // 12 sequence bits below, 10 node bits above them
+            assertEquals(nodeId, (id >>> 12) & 0x3ff, orderNumber);
+        }
+    }
+
+    @Test
+    void refusesToStartWithoutANodeId() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeOrderNumberGenerator(-1, false));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(1024, false));
+    }
+
+    @Test
+    void keepsTheOrderNumberShape() {
+        String orderNumber = new SnowflakeOrderNumberGenerator(1).nextOrderNumber();
+        assertTrue(orderNumber.matches("ORD-\\d{8}-[0-9a-z]+"), orderNumber);
+    }
+}